@@ -0,0 +1,82 @@
+package com.moneymanager.benchmark;
+
+import com.moneymanager.dto.TransactionAmountDTO;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.service.DashboardAccumulator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// DashboardAccumulator against the per-division stream pipelines it replaced, on 1M projection rows
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class DashboardAccumulatorBenchmark {
+    
+    @Param({"1000000"})
+    public int transactions;
+    
+    private List<TransactionAmountDTO> rows;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        rows = SyntheticData.transactions(transactions).stream()
+            .map(SyntheticData::amountOf)
+            .collect(Collectors.toList());
+    }
+    
+    @Benchmark
+    public void streams(Blackhole blackhole) {
+        blackhole.consume(rows.stream()
+            .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
+            .mapToLong(TransactionAmountDTO::getAmount)
+            .sum());
+        blackhole.consume(rows.stream()
+            .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
+            .mapToLong(TransactionAmountDTO::getAmount)
+            .sum());
+        
+        Map<String, Long> divisions = new HashMap<>();
+        for (Transaction.Division division : Transaction.Division.values()) {
+            long income = rows.stream()
+                .filter(t -> t.getDivision() == division && t.getType() == Transaction.TransactionType.INCOME)
+                .mapToLong(TransactionAmountDTO::getAmount)
+                .sum();
+            long expense = rows.stream()
+                .filter(t -> t.getDivision() == division && t.getType() == Transaction.TransactionType.EXPENSE)
+                .mapToLong(TransactionAmountDTO::getAmount)
+                .sum();
+            divisions.put(division.name(), income - expense);
+        }
+        blackhole.consume(divisions);
+        
+        blackhole.consume(rows.stream()
+            .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
+            .collect(Collectors.groupingBy(TransactionAmountDTO::getCategory,
+                Collectors.summingLong(TransactionAmountDTO::getAmount))));
+    }
+    
+    @Benchmark
+    public void accumulator(Blackhole blackhole) {
+        DashboardAccumulator totals = new DashboardAccumulator();
+        for (TransactionAmountDTO t : rows) {
+            totals.add(t.getType(), t.getDivision(), t.getCategory(), t.getAmount(), 1);
+        }
+        
+        blackhole.consume(totals.total(Transaction.TransactionType.INCOME));
+        blackhole.consume(totals.total(Transaction.TransactionType.EXPENSE));
+        for (Transaction.Division division : Transaction.Division.values()) {
+            blackhole.consume(totals.total(division, Transaction.TransactionType.INCOME)
+                - totals.total(division, Transaction.TransactionType.EXPENSE));
+        }
+        blackhole.consume(totals.totalsByCategory(Transaction.TransactionType.EXPENSE));
+    }
+}
@@ -0,0 +1,121 @@
+package com.moneymanager.benchmark;
+
+import com.moneymanager.model.Transaction;
+import com.moneymanager.repository.DailyRollupRepository;
+import com.moneymanager.repository.TransactionRepository;
+import com.moneymanager.service.DashboardOverviewService;
+import com.moneymanager.service.DashboardService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Concurrent dashboard page loads under the two request execution modes: a platform pool the size
+// of Tomcat's default (server.tomcat.threads.max=200) and one virtual thread per request, which is
+// what spring.threads.virtual.enabled gives Tomcat. Each repository call sleeps for mongoLatencyMillis
+// to model the blocking Mongo round trip. One invocation is a wave of `users` simultaneous page loads
+// (summary + chart + both category summaries + division summary), either as five sequential calls
+// or through the parallel DashboardOverviewService. The virtual mode needs Java 21:
+//   mvn -Pbenchmark,virtual-threads test-compile exec:exec -Djmh.args="DashboardLoadBenchmark"
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DashboardLoadBenchmark {
+    
+    private static final int TOMCAT_MAX_THREADS = 200;
+    
+    @Param({"platform", "virtual"})
+    public String mode;
+    
+    @Param({"200", "2000"})
+    public int users;
+    
+    @Param({"5"})
+    public int mongoLatencyMillis;
+    
+    private DashboardService dashboardService;
+    private DashboardOverviewService overviewService;
+    private ExecutorService executor;
+    private LocalDateTime monthStart;
+    private LocalDateTime monthEnd;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Transaction> data = SyntheticData.transactions(1_000);
+        Duration latency = Duration.ofMillis(mongoLatencyMillis);
+        dashboardService = new DashboardService(
+            InMemoryRepositories.withLatency(TransactionRepository.class, InMemoryRepositories.transactions(data), latency),
+            InMemoryRepositories.withLatency(DailyRollupRepository.class, InMemoryRepositories.rollups(data), latency),
+            InMemoryRepositories.hotWindowDisabled(),
+            InMemoryRepositories.snapshotsDisabled(),
+            new SimpleMeterRegistry()
+        );
+        ReflectionTestUtils.setField(dashboardService, "rollupsEnabled", true);
+        monthStart = SyntheticData.END.withDayOfMonth(1).toLocalDate().atStartOfDay();
+        monthEnd = SyntheticData.END;
+        overviewService = new DashboardOverviewService(dashboardService, 16, 256);
+        
+        executor = mode.equals("virtual") ? virtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        overviewService.shutdown();
+    }
+    
+    @Benchmark
+    public int pageLoads() throws Exception {
+        List<Future<?>> pending = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            pending.add(executor.submit(this::loadDashboard));
+        }
+        for (Future<?> page : pending) {
+            page.get();
+        }
+        return pending.size();
+    }
+    
+    @Benchmark
+    public int overviewLoads() throws Exception {
+        List<Future<?>> pending = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            pending.add(executor.submit(() -> overviewService.getOverview(
+                SyntheticData.USER, "MONTHLY", SyntheticData.END, SyntheticData.END.getYear(), monthStart, monthEnd)));
+        }
+        for (Future<?> page : pending) {
+            page.get();
+        }
+        return pending.size();
+    }
+    
+    private Object loadDashboard() {
+        return List.of(
+            dashboardService.getDashboardSummary(SyntheticData.USER, "MONTHLY", SyntheticData.END),
+            dashboardService.getChartData(SyntheticData.USER, "MONTHLY", SyntheticData.END.getYear()),
+            dashboardService.getCategorySummary(SyntheticData.USER, monthStart, monthEnd, Transaction.TransactionType.INCOME),
+            dashboardService.getCategorySummary(SyntheticData.USER, monthStart, monthEnd, Transaction.TransactionType.EXPENSE),
+            dashboardService.getDivisionSummary(SyntheticData.USER, monthStart, monthEnd)
+        );
+    }
+    
+    // Looked up reflectively so the benchmark profile still compiles on Java 17
+    private static ExecutorService virtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("mode=virtual needs Java 21; build with -Pvirtual-threads", e);
+        }
+    }
+}
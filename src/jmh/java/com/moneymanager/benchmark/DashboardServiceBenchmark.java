@@ -0,0 +1,106 @@
+package com.moneymanager.benchmark;
+
+import com.moneymanager.dto.CategorySummaryDTO;
+import com.moneymanager.dto.ChartDataDTO;
+import com.moneymanager.dto.DashboardSummaryDTO;
+import com.moneymanager.dto.DivisionSummaryDTO;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.repository.TransactionRepository;
+import com.moneymanager.service.DashboardService;
+import com.moneymanager.service.HotWindowStore;
+import com.moneymanager.service.SnapshotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Dashboard endpoints over the in-memory stand-ins, on the raw-transaction, rollup, hot-window and
+// snapshot paths. The clock is fixed at the end of the synthetic data, so the monthly calls fall inside
+// the hot window and every month but the last is snapshotted (its totals then come from the rollups).
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class DashboardServiceBenchmark {
+    
+    @Param({"10000", "1000000", "10000000"})
+    public int transactions;
+    
+    @Param({"transactions", "rollups", "hot-window", "snapshots"})
+    public String source;
+    
+    private DashboardService dashboardService;
+    private Path snapshotDir;
+    private LocalDateTime monthStart;
+    private LocalDateTime monthEnd;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<Transaction> data = SyntheticData.transactions(transactions);
+        TransactionRepository transactionRepository = InMemoryRepositories.transactions(data);
+        Clock clock = Clock.fixed(SyntheticData.END.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        snapshotDir = Files.createTempDirectory("snapshots");
+        SnapshotService snapshotService = new SnapshotService(transactionRepository, null, clock,
+            source.equals("snapshots"), snapshotDir, 4096);
+        dashboardService = new DashboardService(
+            transactionRepository,
+            InMemoryRepositories.rollups(data),
+            new HotWindowStore(transactionRepository, clock, source.equals("hot-window"), 1),
+            snapshotService,
+            new SimpleMeterRegistry()
+        );
+        ReflectionTestUtils.setField(dashboardService, "rollupsEnabled", !source.equals("transactions"));
+        if (source.equals("snapshots")) {
+            snapshotService.snapshotUser(SyntheticData.USER);
+        }
+        
+        monthStart = SyntheticData.END.withDayOfMonth(1).toLocalDate().atStartOfDay();
+        monthEnd = SyntheticData.END;
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(snapshotDir);
+    }
+    
+    @Benchmark
+    public DashboardSummaryDTO summaryMonthly() {
+        return dashboardService.getDashboardSummary(SyntheticData.USER, "MONTHLY", SyntheticData.END);
+    }
+    
+    @Benchmark
+    public DashboardSummaryDTO summaryYearly() {
+        return dashboardService.getDashboardSummary(SyntheticData.USER, "YEARLY", SyntheticData.END);
+    }
+    
+    @Benchmark
+    public List<CategorySummaryDTO> categorySummary() {
+        return dashboardService.getCategorySummary(SyntheticData.USER, monthStart, monthEnd, Transaction.TransactionType.EXPENSE);
+    }
+    
+    @Benchmark
+    public DivisionSummaryDTO divisionSummary() {
+        return dashboardService.getDivisionSummary(SyntheticData.USER, monthStart, monthEnd);
+    }
+    
+    @Benchmark
+    public ChartDataDTO chartWeekly() {
+        return dashboardService.getChartData(SyntheticData.USER, "WEEKLY", SyntheticData.END.getYear());
+    }
+    
+    @Benchmark
+    public ChartDataDTO chartYearly() {
+        return dashboardService.getChartData(SyntheticData.USER, "YEARLY", SyntheticData.END.getYear());
+    }
+}
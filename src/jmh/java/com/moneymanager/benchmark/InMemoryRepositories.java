@@ -0,0 +1,309 @@
+package com.moneymanager.benchmark;
+
+import com.moneymanager.dto.ChartBucketDTO;
+import com.moneymanager.dto.TransactionAmountDTO;
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.model.Account;
+import com.moneymanager.model.DailyRollup;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.model.Transfer;
+import com.moneymanager.repository.AccountRepository;
+import com.moneymanager.repository.DailyRollupRepository;
+import com.moneymanager.repository.LedgerCheckpointRepository;
+import com.moneymanager.repository.LedgerEntryRepository;
+import com.moneymanager.repository.TransactionRepository;
+import com.moneymanager.repository.TransferRepository;
+import com.moneymanager.service.DashboardStreamService;
+import com.moneymanager.service.HotWindowStore;
+import com.moneymanager.service.RollupService;
+import com.moneymanager.service.SnapshotService;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Heap-backed stand-ins for the Mongo repositories. Each store implements only the repository
+// methods the services call; anything else throws, so a benchmark never silently measures a no-op.
+final class InMemoryRepositories {
+    
+    private InMemoryRepositories() {
+    }
+    
+    static TransactionRepository transactions(List<Transaction> transactions) {
+        return stub(TransactionRepository.class, new TransactionStore(transactions));
+    }
+    
+    static DailyRollupRepository rollups(List<Transaction> transactions) {
+        return stub(DailyRollupRepository.class, new RollupStore(transactions));
+    }
+    
+    static AccountRepository accounts(Map<String, Account> accounts) {
+        return stub(AccountRepository.class, new AccountStore(accounts));
+    }
+    
+    static TransferRepository transfers() {
+        return stub(TransferRepository.class, new TransferStore());
+    }
+    
+    static LedgerEntryRepository ledgerEntries() {
+        return stub(LedgerEntryRepository.class, new InsertCounter());
+    }
+    
+    static LedgerCheckpointRepository ledgerCheckpoints() {
+        return stub(LedgerCheckpointRepository.class, new InsertCounter());
+    }
+    
+    // Keep a benchmark on the Mongo read paths it measures
+    static HotWindowStore hotWindowDisabled() {
+        return new HotWindowStore(null, Clock.systemDefaultZone(), false, 0);
+    }
+    
+    static SnapshotService snapshotsDisabled() {
+        return new SnapshotService(null, null, Clock.systemDefaultZone(), false, null, 0);
+    }
+    
+    // Nobody subscribes, so writes only take the stream lock
+    static DashboardStreamService dashboardStreamUnused() {
+        return new DashboardStreamService(null, false, 0, 0, 1);
+    }
+    
+    // Sleeps before every call, standing in for the network round trip of a blocking Mongo query
+    @SuppressWarnings("unchecked")
+    static <T> T withLatency(Class<T> repository, T delegate, Duration latency) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository}, (proxy, method, args) -> {
+            Thread.sleep(latency.toMillis(), latency.toNanosPart() % 1_000_000);
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> repository, Object store) {
+        Map<Method, Method> dispatch = new ConcurrentHashMap<>();
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository}, (proxy, method, args) -> {
+            Method target = dispatch.computeIfAbsent(method, m -> {
+                try {
+                    return store.getClass().getMethod(m.getName(), m.getParameterTypes());
+                } catch (NoSuchMethodException e) {
+                    throw new UnsupportedOperationException(repository.getSimpleName() + "." + m.getName());
+                }
+            });
+            try {
+                return target.invoke(store, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+    
+    static List<ChartBucketDTO> sumInBuckets(List<LocalDateTime> boundaries, List<LocalDateTime> dates,
+                                             List<Transaction.TransactionType> types, List<Long> amounts) {
+        Map<LocalDateTime, ChartBucketDTO> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < dates.size(); i++) {
+            LocalDateTime date = dates.get(i);
+            for (int b = 0; b < boundaries.size() - 1; b++) {
+                if (!date.isBefore(boundaries.get(b)) && date.isBefore(boundaries.get(b + 1))) {
+                    ChartBucketDTO bucket = buckets.computeIfAbsent(boundaries.get(b), k -> new ChartBucketDTO(k, 0L, 0L));
+                    if (types.get(i) == Transaction.TransactionType.INCOME) {
+                        bucket.setIncome(bucket.getIncome() + amounts.get(i));
+                    } else {
+                        bucket.setExpense(bucket.getExpense() + amounts.get(i));
+                    }
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+    
+    public static final class TransactionStore {
+        private final List<Transaction> transactions;
+        private final List<TransactionAmountDTO> amounts;
+        private final AtomicLong ids = new AtomicLong();
+        
+        TransactionStore(List<Transaction> transactions) {
+            this.transactions = transactions;
+            this.amounts = transactions.stream().map(SyntheticData::amountOf).collect(Collectors.toList());
+        }
+        
+        public Optional<Transaction> findFirstByUserIdOrderByDateAsc(String userId) {
+            return transactions.stream()
+                .filter(t -> userId.equals(t.getUserId()))
+                .min(Comparator.comparing(Transaction::getDate));
+        }
+        
+        // Derived Between finders are exclusive on both ends
+        public List<Transaction> findByUserIdAndDateBetween(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+            return transactions.stream()
+                .filter(t -> userId.equals(t.getUserId()))
+                .filter(t -> t.getDate().isAfter(startDate) && t.getDate().isBefore(endDate))
+                .collect(Collectors.toList());
+        }
+        
+        public List<TransactionAmountDTO> findAmountsByUserIdAndDateBetween(String userId, LocalDateTime startDate,
+                                                                            LocalDateTime endDate) {
+            return amounts.stream()
+                .filter(t -> userId.equals(t.getUserId()))
+                .filter(t -> t.getDate().isAfter(startDate) && t.getDate().isBefore(endDate))
+                .collect(Collectors.toList());
+        }
+        
+        public List<TransactionAmountDTO> findAmountsByUserIdAndDateBetweenAndType(String userId, LocalDateTime startDate,
+                                                                                   LocalDateTime endDate,
+                                                                                   Transaction.TransactionType type) {
+            return amounts.stream()
+                .filter(t -> userId.equals(t.getUserId()))
+                .filter(t -> t.getType() == type && t.getDate().isAfter(startDate) && t.getDate().isBefore(endDate))
+                .collect(Collectors.toList());
+        }
+        
+        public List<Transaction> findByFilter(TransactionFilter filter) {
+            return transactions.stream()
+                .filter(t -> filter.getUserId().equals(t.getUserId()))
+                .filter(t -> filter.getStartDate() == null || !t.getDate().isBefore(filter.getStartDate()))
+                .filter(t -> filter.getEndDate() == null || !t.getDate().isAfter(filter.getEndDate()))
+                .filter(t -> filter.getType() == null || t.getType() == filter.getType())
+                .filter(t -> filter.getDivision() == null || t.getDivision() == filter.getDivision())
+                .filter(t -> filter.getCategory() == null || filter.getCategory().equals(t.getCategory()))
+                .collect(Collectors.toList());
+        }
+        
+        public List<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries) {
+            List<TransactionAmountDTO> owned = amounts.stream()
+                .filter(t -> userId.equals(t.getUserId()))
+                .collect(Collectors.toList());
+            return sumInBuckets(boundaries,
+                owned.stream().map(TransactionAmountDTO::getDate).collect(Collectors.toList()),
+                owned.stream().map(TransactionAmountDTO::getType).collect(Collectors.toList()),
+                owned.stream().map(TransactionAmountDTO::getAmount).collect(Collectors.toList()));
+        }
+        
+        public Object save(Object transaction) {
+            Transaction t = (Transaction) transaction;
+            if (t.getId() == null) {
+                t.setId("new-" + ids.incrementAndGet());
+            }
+            return t;
+        }
+    }
+    
+    public static final class RollupStore {
+        private final List<DailyRollup> rollups;
+        
+        RollupStore(List<Transaction> transactions) {
+            Map<String, DailyRollup> byId = new LinkedHashMap<>();
+            transactions.stream()
+                .map(RollupService::contributionOf)
+                .filter(Objects::nonNull)
+                .forEach(r -> byId.merge(r.getId(), r, (a, b) -> {
+                    a.setSum(a.getSum() + b.getSum());
+                    a.setCount(a.getCount() + b.getCount());
+                    return a;
+                }));
+            this.rollups = new ArrayList<>(byId.values());
+        }
+        
+        public List<DailyRollup> findByDayRange(String userId, LocalDate fromDay, LocalDate toDay) {
+            return rollups.stream()
+                .filter(r -> userId.equals(r.getUserId()))
+                .filter(r -> !r.getDay().isBefore(fromDay) && !r.getDay().isAfter(toDay))
+                .collect(Collectors.toList());
+        }
+        
+        public List<DailyRollup> findByDayRangeAndType(String userId, LocalDate fromDay, LocalDate toDay,
+                                                       Transaction.TransactionType type) {
+            return rollups.stream()
+                .filter(r -> userId.equals(r.getUserId()))
+                .filter(r -> r.getType() == type && !r.getDay().isBefore(fromDay) && !r.getDay().isAfter(toDay))
+                .collect(Collectors.toList());
+        }
+        
+        public List<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries) {
+            List<DailyRollup> owned = rollups.stream()
+                .filter(r -> userId.equals(r.getUserId()))
+                .collect(Collectors.toList());
+            return sumInBuckets(boundaries,
+                owned.stream().map(r -> r.getDay().atStartOfDay()).collect(Collectors.toList()),
+                owned.stream().map(DailyRollup::getType).collect(Collectors.toList()),
+                owned.stream().map(DailyRollup::getSum).collect(Collectors.toList()));
+        }
+    }
+    
+    public static final class AccountStore {
+        private final Map<String, Account> accounts;
+        
+        AccountStore(Map<String, Account> accounts) {
+            this.accounts = accounts;
+        }
+        
+        public Optional<Account> findByIdAndUserId(String id, String userId) {
+            return Optional.ofNullable(accounts.get(id)).filter(a -> userId.equals(a.getUserId()));
+        }
+        
+        public Object save(Object account) {
+            Account a = (Account) account;
+            accounts.put(a.getId(), a);
+            return a;
+        }
+        
+        // Mirrors the guarded findAndModify: check and update happen atomically per account
+        public Account debit(String userId, String id, long amount) {
+            return change(userId, id, -amount, true);
+        }
+        
+        public Account credit(String userId, String id, long amount) {
+            return change(userId, id, amount, false);
+        }
+        
+        private Account change(String userId, String id, long delta, boolean guarded) {
+            Account[] updated = new Account[1];
+            accounts.computeIfPresent(id, (key, a) -> {
+                if (!userId.equals(a.getUserId()) || guarded && a.getBalance() < -delta) {
+                    return a;
+                }
+                updated[0] = new Account(a.getId(), a.getUserId(), a.getAccountName(), a.getBalance() + delta,
+                    a.getVersion() + 1, a.getCreatedAt(), a.getUpdatedAt());
+                return updated[0];
+            });
+            return updated[0];
+        }
+    }
+    
+    public static final class TransferStore {
+        private final AtomicLong ids = new AtomicLong();
+        
+        // Transfers are counted, not retained, so long runs don't grow the heap
+        public Object save(Object transfer) {
+            Transfer t = (Transfer) transfer;
+            t.setId("transfer-" + ids.incrementAndGet());
+            return t;
+        }
+    }
+    
+    // Ledger entries and checkpoints are counted, not retained, like transfers
+    public static final class InsertCounter {
+        private final AtomicLong inserted = new AtomicLong();
+        
+        public Object insert(Object document) {
+            inserted.incrementAndGet();
+            return document;
+        }
+    }
+}
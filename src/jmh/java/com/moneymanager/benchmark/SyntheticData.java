@@ -0,0 +1,59 @@
+package com.moneymanager.benchmark;
+
+import com.moneymanager.dto.TransactionAmountDTO;
+import com.moneymanager.model.Transaction;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Deterministic synthetic datasets; the same size always yields the same rows
+final class SyntheticData {
+    
+    static final String[] CATEGORIES = {
+        "salary", "freelance", "investment", "gift", "other-income",
+        "fuel", "food", "movie", "medical", "loan", "rent", "utilities",
+        "shopping", "transportation", "entertainment", "education", "other-expense"
+    };
+    
+    // Every row belongs to this user
+    static final String USER = "benchmark-user";
+    
+    // Rows are spread over the three years before this instant
+    static final LocalDateTime END = LocalDateTime.of(2025, 12, 31, 23, 59, 59);
+    static final LocalDateTime START = END.minusYears(3);
+    
+    private SyntheticData() {
+    }
+    
+    static List<Transaction> transactions(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        long spanSeconds = Duration.between(START, END).getSeconds();
+        Transaction.TransactionType[] types = Transaction.TransactionType.values();
+        Transaction.Division[] divisions = Transaction.Division.values();
+        
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Transaction t = new Transaction();
+            t.setId(Integer.toHexString(i));
+            t.setUserId(USER);
+            t.setType(types[random.nextInt(types.length)]);
+            t.setDivision(divisions[random.nextInt(divisions.length)]);
+            t.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            t.setAmount((long) random.nextInt(1, 500_000));
+            t.setDate(START.plusSeconds(random.nextLong(spanSeconds)));
+            t.setDescription("synthetic #" + i);
+            t.setCreatedAt(t.getDate());
+            t.setUpdatedAt(t.getDate());
+            transactions.add(t);
+        }
+        return transactions;
+    }
+    
+    static TransactionAmountDTO amountOf(Transaction t) {
+        return new TransactionAmountDTO(t.getUserId(), t.getType(), t.getDivision(), t.getCategory(), t.getAmount(),
+            t.getDate());
+    }
+}
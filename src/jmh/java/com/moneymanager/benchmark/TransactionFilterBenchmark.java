@@ -0,0 +1,53 @@
+package com.moneymanager.benchmark;
+
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.service.RollupService;
+import com.moneymanager.service.WriteVersionService;
+import com.moneymanager.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// TransactionService.getTransactionsByFilters over the in-memory stand-in
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class TransactionFilterBenchmark {
+    
+    @Param({"10000", "1000000", "10000000"})
+    public int transactions;
+    
+    private TransactionService transactionService;
+    private TransactionFilter monthOfOfficeExpenses;
+    private TransactionFilter category;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Transaction> data = SyntheticData.transactions(transactions);
+        // Reads never touch the rollups, so the service needs no MongoTemplate
+        transactionService = new TransactionService(InMemoryRepositories.transactions(data), new RollupService(null),
+            InMemoryRepositories.hotWindowDisabled(), InMemoryRepositories.snapshotsDisabled(), new WriteVersionService(true),
+            InMemoryRepositories.dashboardStreamUnused());
+        
+        monthOfOfficeExpenses = new TransactionFilter(
+            SyntheticData.USER, SyntheticData.END.minusMonths(1), SyntheticData.END,
+            Transaction.TransactionType.EXPENSE, Transaction.Division.OFFICE, null
+        );
+        category = new TransactionFilter(SyntheticData.USER, null, null, null, null, "food");
+    }
+    
+    @Benchmark
+    public List<Transaction> dateTypeDivision() {
+        return transactionService.getTransactionsByFilters(monthOfOfficeExpenses);
+    }
+    
+    @Benchmark
+    public List<Transaction> categoryOnly() {
+        return transactionService.getTransactionsByFilters(category);
+    }
+}
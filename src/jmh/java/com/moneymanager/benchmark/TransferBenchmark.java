@@ -0,0 +1,79 @@
+package com.moneymanager.benchmark;
+
+import com.moneymanager.exception.InsufficientBalanceException;
+import com.moneymanager.model.Account;
+import com.moneymanager.model.Transfer;
+import com.moneymanager.service.AccountService;
+import com.moneymanager.service.LedgerService;
+import com.moneymanager.service.WriteVersionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// AccountService.createTransfer from many threads over the in-memory stand-in. Each trial ends by
+// checking that money was conserved and no account went negative; the stand-in applies its own
+// atomic balance guard, so this only covers the service's debit/credit sequence. The Mongo
+// findAndModify guard itself is exercised by TransferConcurrencyTest. Amounts are minor units.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class TransferBenchmark {
+    
+    private static final int ACCOUNTS = 32;
+    private static final long INITIAL_BALANCE = 100_000;
+    
+    private Map<String, Account> accounts;
+    private AccountService accountService;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        accounts = new ConcurrentHashMap<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.put("acc-" + i, new Account("acc-" + i, SyntheticData.USER, "Account " + i, INITIAL_BALANCE, 0L,
+                null, null));
+        }
+        accountService = new AccountService(
+            InMemoryRepositories.accounts(accounts),
+            InMemoryRepositories.transfers(),
+            new ConcurrentMapCacheManager(),
+            new LedgerService(InMemoryRepositories.ledgerEntries(), InMemoryRepositories.ledgerCheckpoints(), 100),
+            new WriteVersionService(true)
+        );
+    }
+    
+    @Benchmark
+    public Transfer createTransfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Transfer transfer = new Transfer();
+        transfer.setFromAccountId("acc-" + random.nextInt(ACCOUNTS));
+        transfer.setToAccountId("acc-" + random.nextInt(ACCOUNTS));
+        transfer.setAmount((long) random.nextInt(1, 20_000));
+        try {
+            return accountService.createTransfer(SyntheticData.USER, transfer);
+        } catch (InsufficientBalanceException e) {
+            return null;
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void verifyConservation() {
+        long total = accounts.values().stream().mapToLong(Account::getBalance).sum();
+        if (total != ACCOUNTS * INITIAL_BALANCE) {
+            throw new IllegalStateException("Money not conserved: expected " + ACCOUNTS * INITIAL_BALANCE + ", got " + total);
+        }
+        accounts.values().stream()
+            .filter(a -> a.getBalance() < 0)
+            .findAny()
+            .ifPresent(a -> {
+                throw new IllegalStateException("Account overdrawn: " + a);
+            });
+    }
+}
@@ -0,0 +1,36 @@
+package com.moneymanager.config;
+
+import com.moneymanager.model.Account;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+// Accounts saved before Account had a @Version field would be treated as new on save() and
+// re-inserted; give them an initial version so optimistic locking applies to them too.
+// Runs before the server takes traffic, so no request can save an unversioned account.
+@Slf4j
+@Configuration
+@Order(3)
+@RequiredArgsConstructor
+public class AccountVersionBackfill implements StartupTask {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @Override
+    public void run() {
+        long updated = mongoTemplate.updateMulti(
+            Query.query(Criteria.where("version").exists(false)),
+            new Update().set("version", 0L),
+            Account.class
+        ).getModifiedCount();
+        
+        if (updated > 0) {
+            log.info("Initialized version on {} accounts", updated);
+        }
+    }
+}
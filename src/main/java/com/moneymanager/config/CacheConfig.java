@@ -0,0 +1,61 @@
+package com.moneymanager.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String CATEGORIES = "categories";
+    public static final String ACCOUNTS = "accounts";
+    public static final String ACCOUNT_LIST = "accountList";
+    
+    @Value("${cache.accounts.max-size:10000}")
+    private long accountsMaxSize;
+    
+    @Value("${cache.users.max-size:10000}")
+    private long usersMaxSize;
+    
+    @Value("${deployment.single-instance:false}")
+    private boolean singleInstance;
+    
+    @Value("${cache.expire-after-write:PT30S}")
+    private Duration expireAfterWrite;
+    
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        
+        // Per-user lists (categories, accounts) are small and almost static: keep each user's list
+        // whole until one of that user's writes evicts it
+        cacheManager.registerCustomCache(CATEGORIES, bounded(usersMaxSize).build());
+        
+        // Accounts by owner and id: size-bounded, written through by every AccountService write
+        cacheManager.registerCustomCache(ACCOUNTS, bounded(accountsMaxSize).build());
+        
+        cacheManager.registerCustomCache(ACCOUNT_LIST, bounded(usersMaxSize).build());
+        
+        return cacheManager;
+    }
+    
+    // Writes only evict this instance's entries. With several instances an entry may miss another
+    // instance's write, so it expires expireAfterWrite after it was loaded: that is how stale a
+    // balance or list can be. A single instance sees every write and keeps entries until evicted.
+    private Caffeine<Object, Object> bounded(long maxSize) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .recordStats();
+        if (!singleInstance) {
+            builder.expireAfterWrite(expireAfterWrite);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,18 @@
+package com.moneymanager.config;
+
+import org.springframework.security.core.annotation.CurrentSecurityContext;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// The userId of the authenticated caller (the tenancy.user-claim of its token), for controller
+// method parameters on both the MVC and WebFlux stacks
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@CurrentSecurityContext(expression = "authentication.name")
+public @interface CurrentUser {
+}
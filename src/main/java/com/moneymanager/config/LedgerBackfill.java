@@ -0,0 +1,37 @@
+package com.moneymanager.config;
+
+import com.moneymanager.model.Account;
+import com.moneymanager.repository.AccountRepository;
+import com.moneymanager.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+// Accounts created before the ledger existed get an opening entry and checkpoint at their current
+// balance; balances before that moment are not known and are reported as missing.
+// Runs before the server takes traffic, after AccountVersionBackfill has given every account the
+// version its opening entry is keyed by.
+@Slf4j
+@Configuration
+@Order(4)
+@RequiredArgsConstructor
+public class LedgerBackfill implements StartupTask {
+    
+    private final AccountRepository accountRepository;
+    private final LedgerService ledgerService;
+    
+    @Override
+    public void run() {
+        int opened = 0;
+        for (Account account : accountRepository.findAll()) {
+            if (ledgerService.open(account)) {
+                opened++;
+            }
+        }
+        
+        if (opened > 0) {
+            log.info("Opened ledgers for {} existing accounts", opened);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.moneymanager.config;
+
+import com.moneymanager.model.Account;
+import com.moneymanager.repository.AccountRepository;
+import com.moneymanager.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Nightly check of every account's ledger against accounts.balance; see LedgerService#reconcile.
+// Safe to run on several instances at once: a repair is an insert at the account's version, so
+// only one of them lands.
+@Slf4j
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ledger.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerReconciler {
+
+    private final AccountRepository accountRepository;
+    private final LedgerService ledgerService;
+
+    @Value("${ledger.reconcile.grace:PT5M}")
+    private Duration grace;
+
+    @Scheduled(cron = "${ledger.reconcile.cron:0 0 3 * * *}")
+    public void reconcile() {
+        LocalDateTime writtenBefore = LocalDateTime.now().minus(grace);
+        Map<LedgerService.Reconciliation, Integer> outcomes = new EnumMap<>(LedgerService.Reconciliation.class);
+        for (Account account : accountRepository.findAll()) {
+            outcomes.merge(ledgerService.reconcile(account, writtenBefore), 1, Integer::sum);
+        }
+        log.info("Reconciled account ledgers: {}", outcomes);
+    }
+}
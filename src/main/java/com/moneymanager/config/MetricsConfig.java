@@ -0,0 +1,16 @@
+package com.moneymanager.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    
+    // Applies to both the blocking and the reactive Mongo client
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoDocumentsMetrics(MeterRegistry registry) {
+        return settings -> settings.addCommandListener(new MongoDocumentsListener(registry));
+    }
+}
@@ -0,0 +1,23 @@
+package com.moneymanager.config;
+
+import com.moneymanager.service.MoneyMigrationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Amounts must be in minor units before anything reads them, so the migration runs on startup, right
+// after the tenancy migration and before the server takes traffic
+@Component
+@Order(1)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "money.migration.run-on-startup", havingValue = "true", matchIfMissing = true)
+public class MoneyMigrationRunner implements StartupTask {
+    
+    private final MoneyMigrationService moneyMigrationService;
+    
+    @Override
+    public void run() {
+        moneyMigrationService.migrate();
+    }
+}
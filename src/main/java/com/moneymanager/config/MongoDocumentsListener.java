@@ -0,0 +1,53 @@
+package com.moneymanager.config;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+
+// Records how many documents each find/aggregate/getMore batch brought back, per collection.
+// Latency per command and collection is already recorded by Boot as mongodb.driver.commands.
+class MongoDocumentsListener implements CommandListener {
+    
+    static final String METRIC = "mongodb.driver.documents.returned";
+    
+    private final MeterRegistry registry;
+    
+    MongoDocumentsListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        BsonDocument cursor = event.getResponse().getDocument("cursor", null);
+        BsonArray batch = cursorBatch(event.getResponse());
+        if (batch == null) {
+            return;
+        }
+        
+        // The reply names its namespace as "<database>.<collection>"
+        String namespace = cursor.containsKey("ns") ? cursor.getString("ns").getValue() : "";
+        String collection = namespace.substring(namespace.indexOf('.') + 1);
+        
+        DistributionSummary.builder(METRIC)
+            .description("Documents returned per cursor batch")
+            .tag("collection", collection.isEmpty() ? "unknown" : collection)
+            .tag("command", event.getCommandName())
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(batch.size());
+    }
+    
+    // The documents of a find/aggregate/getMore reply, or null for other commands
+    static BsonArray cursorBatch(BsonDocument response) {
+        BsonDocument cursor = response.getDocument("cursor", null);
+        if (cursor == null) {
+            return null;
+        }
+        return cursor.containsKey("firstBatch")
+            ? cursor.getArray("firstBatch")
+            : cursor.getArray("nextBatch", null);
+    }
+}
@@ -0,0 +1,16 @@
+package com.moneymanager.config;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+public class QueryBudgetConfig {
+    
+    @Bean
+    public MongoClientSettingsBuilderCustomizer queryBudgetListener() {
+        return settings -> settings.addCommandListener(new QueryBudgetListener());
+    }
+}
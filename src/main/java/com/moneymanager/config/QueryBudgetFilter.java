@@ -0,0 +1,38 @@
+package com.moneymanager.config;
+
+import com.moneymanager.service.QueryBudgetService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Opens a query-budget scope around each servlet request
+@Component
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class QueryBudgetFilter extends OncePerRequestFilter {
+    
+    private final QueryBudgetService queryBudgetService;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !queryBudgetService.isEnabled();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryBudgetService.RequestQueries queries = queryBudgetService.begin(request.getMethod(), request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            queryBudgetService.end(queries);
+        }
+    }
+}
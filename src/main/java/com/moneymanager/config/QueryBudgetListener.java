@@ -0,0 +1,35 @@
+package com.moneymanager.config;
+
+import com.moneymanager.service.QueryBudgetService;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonValue;
+
+import java.util.Set;
+
+// Feeds the commands and returned documents of the current request to QueryBudgetService
+class QueryBudgetListener implements CommandListener {
+    
+    // Continuations of a query already counted
+    private static final Set<String> CONTINUATIONS = Set.of("getMore", "killCursors");
+    
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String name = event.getCommandName();
+        if (CONTINUATIONS.contains(name)) {
+            return;
+        }
+        BsonValue target = event.getCommand().get(name);
+        QueryBudgetService.recordCommand(name, target != null && target.isString() ? target.asString().getValue() : "");
+    }
+    
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        BsonArray batch = MongoDocumentsListener.cursorBatch(event.getResponse());
+        if (batch != null) {
+            QueryBudgetService.recordDocuments(batch.size());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.moneymanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// mongo.query-budget.* settings for the per-request slow-query detector
+@Data
+@ConfigurationProperties(prefix = "mongo.query-budget")
+public class QueryBudgetProperties {
+
+    private boolean enabled = true;
+
+    // A request issuing more Mongo commands or reading more documents than this is over budget
+    private int maxQueries = 5;
+    private long maxDocuments = 10_000;
+
+    // Worst over-budget requests kept for GET /api/admin/slow-requests
+    private int keep = 20;
+}
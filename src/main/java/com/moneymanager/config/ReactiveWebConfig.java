@@ -0,0 +1,52 @@
+package com.moneymanager.config;
+
+import com.moneymanager.controller.ReactiveDashboardHandler;
+import com.moneymanager.controller.ReactiveTransactionHandler;
+import com.moneymanager.dto.ApiResponse;
+import com.moneymanager.exception.BadRequestException;
+import com.moneymanager.exception.ResourceNotFoundException;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+// The "reactive" profile runs the app on WebFlux as a read-only API: the list and dashboard reads
+// below, over the reactive repositories, are the only endpoints it serves. The annotated controllers
+// are @Profile("!reactive"), since they would run blocking Mongo calls on the event loop and several
+// take servlet-only parameters (InputStream bodies, StreamingResponseBody, SseEmitter).
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfig {
+    
+    // Netty rather than Tomcat's reactive adapter, which Spring Boot would pick first
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+    
+    @Bean
+    public RouterFunction<ServerResponse> reactiveReadRoutes(ReactiveTransactionHandler transactions,
+                                                             ReactiveDashboardHandler dashboard) {
+        return RouterFunctions.route()
+            .GET("/api/transactions", RequestPredicates.queryParam("limit", limit -> true), transactions::page)
+            .GET("/api/transactions", transactions::list)
+            .GET("/api/transactions/stream", transactions::stream)
+            .GET("/api/transfers", RequestPredicates.queryParam("limit", limit -> true), transactions::transferPage)
+            .GET("/api/transfers", transactions::transfers)
+            .GET("/api/dashboard/summary", dashboard::summary)
+            .GET("/api/dashboard/chart", dashboard::chart)
+            .GET("/api/dashboard/category-summary", dashboard::categorySummary)
+            .GET("/api/dashboard/division-summary", dashboard::divisionSummary)
+            .GET("/api/dashboard/overview", dashboard::overview)
+            // GlobalExceptionHandler only covers annotated controllers
+            .onError(BadRequestException.class, (e, request) ->
+                ServerResponse.badRequest().bodyValue(ApiResponse.error(e.getMessage())))
+            .onError(ResourceNotFoundException.class, (e, request) ->
+                ServerResponse.notFound().build())
+            .build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.moneymanager.config;
+
+import com.moneymanager.service.RollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Rebuilds the daily rollups once at startup, e.g. java -jar app.jar --dashboard.rollups.rebuild-on-startup=true
+@Component
+@Order(2)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "dashboard.rollups.rebuild-on-startup", havingValue = "true")
+public class RollupRebuildRunner implements ApplicationRunner {
+    
+    private final RollupService rollupService;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        rollupService.rebuild();
+    }
+}
@@ -0,0 +1,87 @@
+package com.moneymanager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+// Every request needs a bearer token (JWT) from the issuer in spring.security.oauth2.resourceserver.jwt.*.
+// The token's tenancy.user-claim is the caller's userId, so callers can only act as themselves, and
+// tenancy.roles-claim lists its roles. Tokens are sent with every request and no session or cookie is
+// used, so there is no CSRF token either.
+@Configuration
+public class SecurityConfig {
+    
+    // Maintenance endpoints that act on every user or expose other users' requests
+    static final String[] ADMIN_PATHS = {
+        "/api/dashboard/rollups/rebuild",
+        "/api/dashboard/snapshots/build",
+        "/api/admin/**"
+    };
+    
+    // Probes and the Prometheus scrape
+    static final String[] PUBLIC_PATHS = {
+        "/actuator/health/**",
+        "/actuator/info",
+        "/actuator/prometheus"
+    };
+    
+    @Value("${tenancy.user-claim:sub}")
+    private String userClaim;
+    
+    @Value("${tenancy.roles-claim:roles}")
+    private String rolesClaim;
+    
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        return http
+            .authorizeHttpRequests(requests -> requests
+                .requestMatchers(PUBLIC_PATHS).permitAll()
+                .requestMatchers(ADMIN_PATHS).hasRole(Tenancy.ADMIN_ROLE)
+                .anyRequest().authenticated())
+            .oauth2ResourceServer(server -> server.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())))
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(AbstractHttpConfigurer::disable)
+            // CorsConfig's corsFilter, run before authentication so preflight requests get through
+            .cors(Customizer.withDefaults())
+            .build();
+    }
+    
+    // The "reactive" profile
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+            .authorizeExchange(exchanges -> exchanges
+                .pathMatchers(PUBLIC_PATHS).permitAll()
+                .pathMatchers(ADMIN_PATHS).hasRole(Tenancy.ADMIN_ROLE)
+                .anyExchange().authenticated())
+            .oauth2ResourceServer(server -> server.jwt(jwt -> jwt.jwtAuthenticationConverter(
+                new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter()))))
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .build();
+    }
+    
+    // Roles become ROLE_ authorities, so hasRole(ADMIN) matches a token listing "ADMIN"
+    private JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter roles = new JwtGrantedAuthoritiesConverter();
+        roles.setAuthoritiesClaimName(rolesClaim);
+        roles.setAuthorityPrefix("ROLE_");
+        
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setPrincipalClaimName(userClaim);
+        converter.setJwtGrantedAuthoritiesConverter(roles);
+        return converter;
+    }
+}
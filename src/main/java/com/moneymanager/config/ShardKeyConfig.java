@@ -0,0 +1,40 @@
+package com.moneymanager.config;
+
+import com.moneymanager.service.TenancyMigrationService;
+import com.mongodb.MongoCommandException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+// Shards every per-user collection on { userId: 1 } once MongoIndexConfig has created the
+// userId-led indexes the shard key needs. Ranged rather than hashed, so one user's documents stay
+// together and per-user queries go to a single shard. Enable with tenancy.shard-collections=true
+// against a mongos with sharding enabled on the database; collections already sharded are left alone.
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tenancy.shard-collections", havingValue = "true")
+public class ShardKeyConfig {
+    
+    private final MongoTemplate mongoTemplate;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void shardCollections() {
+        String database = mongoTemplate.getDb().getName();
+        for (Class<?> type : TenancyMigrationService.OWNED) {
+            String namespace = database + "." + mongoTemplate.getCollectionName(type);
+            try {
+                mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("admin").runCommand(
+                    new Document("shardCollection", namespace).append("key", new Document("userId", 1)));
+                log.info("Sharded {} on userId", namespace);
+            } catch (MongoCommandException e) {
+                log.warn("Could not shard {} on userId: {}", namespace, e.getErrorMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.moneymanager.config;
+
+import com.moneymanager.service.SnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Nightly job writing the months that closed since the last run into snapshot files
+@Configuration
+@EnableScheduling
+@RequiredArgsConstructor
+@ConditionalOnExpression("${dashboard.snapshots.enabled:${deployment.single-instance:false}}")
+public class SnapshotConfig {
+
+    private final SnapshotService snapshotService;
+
+    @Scheduled(cron = "${dashboard.snapshots.cron:0 30 2 * * *}")
+    public void snapshotClosedMonths() {
+        snapshotService.snapshotClosedMonths();
+    }
+}
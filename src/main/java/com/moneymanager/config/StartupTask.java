@@ -0,0 +1,10 @@
+package com.moneymanager.config;
+
+// Work that must finish before the server takes traffic: index creation and data migrations.
+// Every StartupTask bean runs once, in @Order, after all singletons are created and before the web
+// server starts accepting connections, so no request sees missing indexes or half-migrated data.
+// A task that throws stops the startup.
+public interface StartupTask {
+    
+    void run();
+}
@@ -0,0 +1,20 @@
+package com.moneymanager.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+// Runs the StartupTasks at the end of singleton creation; the web server only starts afterwards,
+// when the context's lifecycle beans are started
+@Component
+@RequiredArgsConstructor
+class StartupTaskRunner implements SmartInitializingSingleton {
+    
+    private final ObjectProvider<StartupTask> tasks;
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        tasks.orderedStream().forEach(StartupTask::run);
+    }
+}
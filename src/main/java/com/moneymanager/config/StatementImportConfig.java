@@ -0,0 +1,9 @@
+package com.moneymanager.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(StatementImportProperties.class)
+public class StatementImportConfig {
+}
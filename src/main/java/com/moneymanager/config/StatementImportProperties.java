@@ -0,0 +1,34 @@
+package com.moneymanager.config;
+
+import com.moneymanager.model.Transaction;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// transactions.import.* settings for CSV/OFX statement imports
+@Data
+@ConfigurationProperties(prefix = "transactions.import")
+public class StatementImportProperties {
+
+    // Parsed rows that may wait for the writer before the parser blocks
+    private int queueCapacity = 2000;
+
+    // Imports writing at the same time; further imports wait for a writer
+    private int maxConcurrent = 4;
+
+    // Pattern for CSV date columns; ISO date-times are always accepted
+    private String dateFormat = "yyyy-MM-dd";
+
+    private Transaction.Division defaultDivision = Transaction.Division.PERSONAL;
+    private String defaultIncomeCategory = "other-income";
+    private String defaultExpenseCategory = "other-expense";
+
+    // category -> description keywords; the first category with a matching keyword wins
+    private Map<String, List<String>> categoryKeywords = new LinkedHashMap<>();
+
+    // OFFICE/PERSONAL -> description keywords
+    private Map<Transaction.Division, List<String>> divisionKeywords = new LinkedHashMap<>();
+}
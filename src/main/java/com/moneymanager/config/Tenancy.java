@@ -0,0 +1,17 @@
+package com.moneymanager.config;
+
+// Every document belongs to one user (userId), and every query and index is scoped by it so a
+// user's reads cost the same however many users share the cluster. userId is also the shard key.
+// The caller is identified by its bearer token (see SecurityConfig) and reaches controllers as a
+// @CurrentUser parameter. The default user only owns the data written before documents carried an owner.
+public final class Tenancy {
+    
+    // Placeholder for @Value
+    public static final String DEFAULT_USER = "${tenancy.default-user-id:default}";
+    
+    // Authority of the users allowed on the maintenance endpoints
+    public static final String ADMIN_ROLE = "ADMIN";
+    
+    private Tenancy() {
+    }
+}
@@ -0,0 +1,24 @@
+package com.moneymanager.config;
+
+import com.moneymanager.service.TenancyMigrationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Every read is scoped by userId, so documents written before they carried one must be assigned
+// an owner before the server takes traffic. Runs first, so later steps such as the money migration's
+// rollup rebuild only ever see owned transactions.
+@Component
+@Order(0)
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tenancy.migration.run-on-startup", havingValue = "true", matchIfMissing = true)
+public class TenancyMigrationRunner implements StartupTask {
+    
+    private final TenancyMigrationService tenancyMigrationService;
+    
+    @Override
+    public void run() {
+        tenancyMigrationService.migrate();
+    }
+}
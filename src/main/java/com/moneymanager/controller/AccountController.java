@@ -1,11 +1,16 @@
 package com.moneymanager.controller;
 
+import com.moneymanager.config.CurrentUser;
 import com.moneymanager.dto.ApiResponse;
+import com.moneymanager.dto.BalancePointDTO;
 import com.moneymanager.model.Account;
 import com.moneymanager.model.Transfer;
 import com.moneymanager.service.AccountService;
+import com.moneymanager.service.WriteVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,43 +20,95 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/accounts")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class AccountController {
     
     private final AccountService accountService;
+    private final WriteVersionService writeVersionService;
     
     @PostMapping
-    public ResponseEntity<ApiResponse<Account>> createAccount(@RequestBody Account account) {
-        Account created = accountService.createAccount(account);
+    public ResponseEntity<ApiResponse<Account>> createAccount(
+            @CurrentUser String userId,
+            @RequestBody Account account
+    ) {
+        Account created = accountService.createAccount(userId, account);
         return ResponseEntity
             .status(HttpStatus.CREATED)
             .body(ApiResponse.success(created, "Account created successfully"));
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Account>>> getAllAccounts() {
-        List<Account> accounts = accountService.getAllAccounts();
-        return ResponseEntity.ok(ApiResponse.success(accounts));
+    public ResponseEntity<ApiResponse<List<Account>>> getAllAccounts(
+            @CurrentUser String userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String etag = accountsEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
+        }
+        
+        List<Account> accounts = accountService.getAllAccounts(userId);
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE).body(ApiResponse.success(accounts));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Account>> getAccountById(@PathVariable String id) {
-        Account account = accountService.getAccountById(id);
-        return ResponseEntity.ok(ApiResponse.success(account));
+    public ResponseEntity<ApiResponse<Account>> getAccountById(
+            @CurrentUser String userId,
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String etag = accountsEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
+        }
+        
+        Account account = accountService.getAccountById(userId, id);
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE).body(ApiResponse.success(account));
+    }
+    
+    // Balance at a past moment, from the account ledger
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<ApiResponse<BalancePointDTO>> getBalanceAsOf(
+            @CurrentUser String userId,
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf
+    ) {
+        return ResponseEntity.ok(ApiResponse.success(accountService.getBalanceAsOf(userId, id, asOf)));
+    }
+    
+    @GetMapping("/{id}/balance-history")
+    public ResponseEntity<ApiResponse<List<BalancePointDTO>>> getBalanceHistory(
+            @CurrentUser String userId,
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "DAILY") String period
+    ) {
+        List<BalancePointDTO> history = accountService.getBalanceHistory(userId, id, startDate, endDate, period);
+        return ResponseEntity.ok(ApiResponse.success(history));
     }
     
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Account>> updateAccount(
+            @CurrentUser String userId,
             @PathVariable String id,
             @RequestBody Account account
     ) {
-        Account updated = accountService.updateAccount(id, account);
+        Account updated = accountService.updateAccount(userId, id, account);
         return ResponseEntity.ok(ApiResponse.success(updated, "Account updated successfully"));
     }
     
     @DeleteMapping("/{id}")
-    public ResponseEntity<ApiResponse<Void>> deleteAccount(@PathVariable String id) {
-        accountService.deleteAccount(id);
+    public ResponseEntity<ApiResponse<Void>> deleteAccount(
+            @CurrentUser String userId,
+            @PathVariable String id
+    ) {
+        accountService.deleteAccount(userId, id);
         return ResponseEntity.ok(ApiResponse.success(null, "Account deleted successfully"));
     }
+    
+    private String accountsEtag(String userId) {
+        return writeVersionService.etag(userId, "", WriteVersionService.Collection.ACCOUNTS);
+    }
 }
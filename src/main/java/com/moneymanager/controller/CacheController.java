@@ -0,0 +1,44 @@
+package com.moneymanager.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.moneymanager.dto.ApiResponse;
+import com.moneymanager.dto.CacheStatsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class CacheController {
+    
+    private final CacheManager cacheManager;
+    
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<CacheStatsDTO>>> getCacheStats() {
+        List<CacheStatsDTO> stats = cacheManager.getCacheNames().stream()
+            .map(cacheManager::getCache)
+            .filter(CaffeineCache.class::isInstance)
+            .map(CaffeineCache.class::cast)
+            .map(cache -> {
+                CacheStats s = cache.getNativeCache().stats();
+                return new CacheStatsDTO(
+                    cache.getName(),
+                    cache.getNativeCache().estimatedSize(),
+                    s.hitCount(),
+                    s.missCount(),
+                    s.hitRate(),
+                    s.evictionCount()
+                );
+            })
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+}
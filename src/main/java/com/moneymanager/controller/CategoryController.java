@@ -1,9 +1,11 @@
 package com.moneymanager.controller;
 
+import com.moneymanager.config.CurrentUser;
 import com.moneymanager.dto.ApiResponse;
 import com.moneymanager.model.Category;
 import com.moneymanager.service.CategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -12,28 +14,36 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/api/categories")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class CategoryController {
     
     private final CategoryService categoryService;
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Category>>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
+    public ResponseEntity<ApiResponse<List<Category>>> getAllCategories(
+            @CurrentUser String userId
+    ) {
+        List<Category> categories = categoryService.getAllCategories(userId);
         return ResponseEntity.ok(ApiResponse.success(categories));
     }
     
     @PostMapping
-    public ResponseEntity<ApiResponse<Category>> createCategory(@RequestBody Category category) {
-        Category created = categoryService.createCategory(category);
+    public ResponseEntity<ApiResponse<Category>> createCategory(
+            @CurrentUser String userId,
+            @RequestBody Category category
+    ) {
+        Category created = categoryService.createCategory(userId, category);
         return ResponseEntity
             .status(HttpStatus.CREATED)
             .body(ApiResponse.success(created, "Category created successfully"));
     }
     
     @PostMapping("/initialize")
-    public ResponseEntity<ApiResponse<Void>> initializeCategories() {
-        categoryService.initializeDefaultCategories();
+    public ResponseEntity<ApiResponse<Void>> initializeCategories(
+            @CurrentUser String userId
+    ) {
+        categoryService.initializeDefaultCategories(userId);
         return ResponseEntity.ok(ApiResponse.success(null, "Default categories initialized"));
     }
 }
@@ -0,0 +1,58 @@
+package com.moneymanager.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+// Responses of conditional GETs. Callers take If-None-Match as a @RequestHeader, check it with
+// matches before doing any work and answer notModified when it matches; nothing here depends on the
+// servlet stack. A null ETag (ETags off) is never matched and is left out of the response.
+final class ConditionalGet {
+
+    // Cached by the browser only, and revalidated with If-None-Match on every use
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Closed periods (a past year's chart) may be reused for a few minutes without revalidating
+    static final CacheControl HISTORY = CacheControl.maxAge(Duration.ofMinutes(5)).cachePrivate().mustRevalidate();
+
+    // Polled state kept outside Mongo, which no ETag covers
+    static final CacheControl NO_STORE = CacheControl.noStore();
+
+    private ConditionalGet() {
+    }
+
+    // True when If-None-Match is "*" or lists the ETag. GETs compare weakly, so a W/ prefix is ignored.
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static ResponseEntity.BodyBuilder ok(String etag, CacheControl cacheControl) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION);
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .build();
+    }
+}
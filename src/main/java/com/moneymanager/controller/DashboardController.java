@@ -1,79 +1,99 @@
 package com.moneymanager.controller;
 
+import com.moneymanager.config.CurrentUser;
 import com.moneymanager.dto.*;
+import com.moneymanager.exception.BadRequestException;
+import com.moneymanager.exception.ResourceNotFoundException;
 import com.moneymanager.model.Transaction;
+import com.moneymanager.service.DashboardOverviewService;
 import com.moneymanager.service.DashboardService;
+import com.moneymanager.service.DashboardStreamService;
+import com.moneymanager.service.RollupService;
+import com.moneymanager.service.SnapshotService;
+import com.moneymanager.service.WriteVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/dashboard")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final DashboardOverviewService dashboardOverviewService;
+    private final DashboardStreamService dashboardStreamService;
+    private final RollupService rollupService;
+    private final SnapshotService snapshotService;
+    private final WriteVersionService writeVersionService;
 
     @GetMapping("/summary")
     public ResponseEntity<ApiResponse<DashboardSummaryDTO>> getDashboardSummary(
+            @CurrentUser String userId,
             @RequestParam(defaultValue = "MONTHLY") String period,
-            @RequestParam(required = false) String date
+            @RequestParam(required = false) String date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        LocalDateTime dateTime;
-
-        if (date != null) {
-            try {
-                // Handle different date formats
-                if (date.length() == 4) {
-                    // Year only: "2024"
-                    dateTime = LocalDateTime.of(Integer.parseInt(date), 1, 1, 0, 0);
-                } else if (date.length() == 7) {
-                    // Year-Month: "2024-02"
-                    String[] parts = date.split("-");
-                    dateTime = LocalDateTime.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), 1, 0, 0);
-                } else if (date.length() == 10) {
-                    // Date only: "2024-02-05"
-                    String[] parts = date.split("-");
-                    dateTime = LocalDateTime.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), 0, 0);
-                } else {
-                    // Full ISO format: "2024-02-05T10:00:00"
-                    dateTime = LocalDateTime.parse(date);
-                }
-            } catch (Exception e) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Invalid date format. Use: YYYY, YYYY-MM, YYYY-MM-DD, or ISO 8601"));
-            }
-        } else {
-            dateTime = LocalDateTime.now();
+        String etag = dashboardEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
         }
 
-        DashboardSummaryDTO summary = dashboardService.getDashboardSummary(period, dateTime);
-        return ResponseEntity.ok(ApiResponse.success(summary));
+        DashboardSummaryDTO summary = dashboardService.getDashboardSummary(userId, period, periodDate(date));
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE).body(ApiResponse.success(summary));
     }
 
     @GetMapping("/chart")
     public ResponseEntity<ApiResponse<ChartDataDTO>> getChartData(
+            @CurrentUser String userId,
             @RequestParam(defaultValue = "MONTHLY") String period,
-            @RequestParam(required = false) Integer year
+            @RequestParam(required = false) Integer year,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
         if (year == null) {
             year = LocalDateTime.now().getYear();
         }
+        // A past year's buckets are closed months, which only back-dated writes change
+        CacheControl cacheControl = year < LocalDateTime.now().getYear()
+                ? ConditionalGet.HISTORY
+                : ConditionalGet.REVALIDATE;
+
+        String etag = dashboardEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, cacheControl);
+        }
 
-        ChartDataDTO chartData = dashboardService.getChartData(period, year);
-        return ResponseEntity.ok(ApiResponse.success(chartData));
+        ChartDataDTO chartData = dashboardService.getChartData(userId, period, year);
+        return ConditionalGet.ok(etag, cacheControl).body(ApiResponse.success(chartData));
     }
 
     @GetMapping("/category-summary")
     public ResponseEntity<ApiResponse<List<CategorySummaryDTO>>> getCategorySummary(
+            @CurrentUser String userId,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            @RequestParam String type
+            @RequestParam String type,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
+        String etag = dashboardEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
+        }
+
         Transaction.TransactionType transactionType;
         try {
             transactionType = Transaction.TransactionType.valueOf(type.toUpperCase());
@@ -82,54 +102,149 @@ public class DashboardController {
                     .body(ApiResponse.error("Invalid transaction type. Use INCOME or EXPENSE"));
         }
 
-        // Default to current month if dates not provided
-        LocalDateTime start;
-        LocalDateTime end;
+        LocalDateTime[] window = window(startDate, endDate);
+        List<CategorySummaryDTO> summary = dashboardService.getCategorySummary(userId, window[0], window[1], transactionType);
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE).body(ApiResponse.success(summary));
+    }
 
-        if (startDate != null && endDate != null) {
-            try {
-                start = LocalDateTime.parse(startDate);
-                end = LocalDateTime.parse(endDate);
-            } catch (Exception e) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Invalid date format. Use ISO 8601: YYYY-MM-DDTHH:mm:ss"));
-            }
-        } else {
-            // Default to current month
-            LocalDateTime now = LocalDateTime.now();
-            start = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-            end = now.withDayOfMonth(now.toLocalDate().lengthOfMonth()).withHour(23).withMinute(59).withSecond(59);
+    @GetMapping("/division-summary")
+    public ResponseEntity<ApiResponse<DivisionSummaryDTO>> getDivisionSummary(
+            @CurrentUser String userId,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String etag = dashboardEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
         }
 
-        List<CategorySummaryDTO> summary = dashboardService.getCategorySummary(start, end, transactionType);
-        return ResponseEntity.ok(ApiResponse.success(summary));
+        LocalDateTime[] window = window(startDate, endDate);
+        DivisionSummaryDTO summary = dashboardService.getDivisionSummary(userId, window[0], window[1]);
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE).body(ApiResponse.success(summary));
     }
 
-    @GetMapping("/division-summary")
-    public ResponseEntity<ApiResponse<DivisionSummaryDTO>> getDivisionSummary(
+    // Summary, chart, both category summaries and the division summary in one call, computed in parallel.
+    // Takes the parameters of the individual endpoints; the category and division summaries share
+    // startDate/endDate (default: current month)
+    @GetMapping("/overview")
+    public ResponseEntity<ApiResponse<DashboardOverviewDTO>> getDashboardOverview(
+            @CurrentUser String userId,
+            @RequestParam(defaultValue = "MONTHLY") String period,
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String etag = dashboardEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
+        }
+
+        LocalDateTime[] window = window(startDate, endDate);
+        DashboardOverviewDTO overview = dashboardOverviewService.getOverview(userId, period, periodDate(date),
+                year != null ? year : LocalDateTime.now().getYear(), window[0], window[1]);
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE).body(ApiResponse.success(overview));
+    }
+
+    // Server-Sent Events instead of polling: first "summary" and "division-summary" events with the full
+    // totals for the same parameters as /summary and /division-summary, then "summary-delta" and
+    // "division-summary-delta" events with the change of every transaction create, update or delete
+    // in those windows, to be added to the totals. Imports send full "summary" and "division-summary"
+    // events again. The windows are fixed when the stream opens.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamDashboard(
+            @CurrentUser String userId,
+            @RequestParam(defaultValue = "MONTHLY") String period,
+            @RequestParam(required = false) String date,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate
     ) {
-        // Default to current month if dates not provided
-        LocalDateTime start;
-        LocalDateTime end;
+        try {
+            LocalDateTime[] window = window(startDate, endDate);
+            return ResponseEntity.ok(dashboardStreamService.subscribe(userId, period, periodDate(date),
+                    window[0], window[1]));
+        } catch (BadRequestException e) {
+            return streamError(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ResourceNotFoundException e) {
+            return streamError(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    // The client only accepts an event stream, which GlobalExceptionHandler's JSON body can't be
+    // written as; errors are sent instead as a single "error" event carrying the same ApiResponse
+    private static ResponseEntity<SseEmitter> streamError(HttpStatus status, String message) {
+        SseEmitter emitter = new SseEmitter();
+        try {
+            emitter.send(SseEmitter.event().name(DashboardStreamService.ERROR).data(ApiResponse.error(message)));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return ResponseEntity.status(status).body(emitter);
+    }
+
+    // Every dashboard response depends only on the user's transactions and, through the default
+    // periods, on today's date
+    private String dashboardEtag(String userId) {
+        return writeVersionService.etag(userId, LocalDate.now(), WriteVersionService.Collection.TRANSACTIONS);
+    }
+
+    // Rebuilds the rollups of every user; ADMIN only (SecurityConfig)
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<ApiResponse<Long>> rebuildRollups() {
+        long rollups = rollupService.rebuild();
+        return ResponseEntity.ok(ApiResponse.success(rollups, "Daily rollups rebuilt"));
+    }
+
+    // Writes the closed months of every user that are not yet snapshotted; ADMIN only (SecurityConfig)
+    @PostMapping("/snapshots/build")
+    public ResponseEntity<ApiResponse<Long>> buildSnapshots() {
+        long months = snapshotService.snapshotClosedMonths();
+        return ResponseEntity.ok(ApiResponse.success(months, "Month snapshots written"));
+    }
+
+    // The date parameter of the period endpoints, defaulting to now
+    static LocalDateTime periodDate(String date) {
+        if (date == null) {
+            return LocalDateTime.now();
+        }
+        try {
+            return parsePeriodDate(date);
+        } catch (Exception e) {
+            throw new BadRequestException("Invalid date format. Use: YYYY, YYYY-MM, YYYY-MM-DD, or ISO 8601");
+        }
+    }
 
+    // startDate/endDate of the window endpoints, defaulting to the current month when either is missing
+    static LocalDateTime[] window(String startDate, String endDate) {
         if (startDate != null && endDate != null) {
             try {
-                start = LocalDateTime.parse(startDate);
-                end = LocalDateTime.parse(endDate);
+                return new LocalDateTime[]{LocalDateTime.parse(startDate), LocalDateTime.parse(endDate)};
             } catch (Exception e) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Invalid date format. Use ISO 8601: YYYY-MM-DDTHH:mm:ss"));
+                throw new BadRequestException("Invalid date format. Use ISO 8601: YYYY-MM-DDTHH:mm:ss");
             }
-        } else {
-            // Default to current month
-            LocalDateTime now = LocalDateTime.now();
-            start = now.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-            end = now.withDayOfMonth(now.toLocalDate().lengthOfMonth()).withHour(23).withMinute(59).withSecond(59);
         }
+        YearMonth currentMonth = YearMonth.now();
+        return new LocalDateTime[]{currentMonth.atDay(1).atStartOfDay(), currentMonth.atEndOfMonth().atTime(23, 59, 59)};
+    }
 
-        DivisionSummaryDTO summary = dashboardService.getDivisionSummary(start, end);
-        return ResponseEntity.ok(ApiResponse.success(summary));
+    // Accepts "2024", "2024-02", "2024-02-05" or a full ISO date-time
+    static LocalDateTime parsePeriodDate(String date) {
+        if (date.length() == 4) {
+            // Year only: "2024"
+            return LocalDateTime.of(Integer.parseInt(date), 1, 1, 0, 0);
+        } else if (date.length() == 7) {
+            // Year-Month: "2024-02"
+            String[] parts = date.split("-");
+            return LocalDateTime.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), 1, 0, 0);
+        } else if (date.length() == 10) {
+            // Date only: "2024-02-05"
+            String[] parts = date.split("-");
+            return LocalDateTime.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), 0, 0);
+        }
+        // Full ISO format: "2024-02-05T10:00:00"
+        return LocalDateTime.parse(date);
     }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.moneymanager.controller;
+
+import com.moneymanager.dto.ApiResponse;
+import com.moneymanager.exception.BadRequestException;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.service.ReactiveDashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// WebFlux handlers for the dashboard reads ("reactive" profile). Same parameters, defaults and
+// response bodies as DashboardController.
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveDashboardHandler {
+
+    private final ReactiveDashboardService reactiveDashboardService;
+
+    public Mono<ServerResponse> summary(ServerRequest request) {
+        return userOf(request).flatMap(userId -> {
+            String period = request.queryParam("period").orElse("MONTHLY");
+            return reactiveDashboardService.getDashboardSummary(userId, period, periodDate(request))
+                    .flatMap(summary -> ServerResponse.ok().bodyValue(ApiResponse.success(summary)));
+        });
+    }
+
+    public Mono<ServerResponse> chart(ServerRequest request) {
+        return userOf(request).flatMap(userId -> {
+            String period = request.queryParam("period").orElse("MONTHLY");
+            return reactiveDashboardService.getChartData(userId, period, year(request))
+                    .flatMap(chart -> ServerResponse.ok().bodyValue(ApiResponse.success(chart)));
+        });
+    }
+
+    public Mono<ServerResponse> categorySummary(ServerRequest request) {
+        return userOf(request).flatMap(userId -> {
+            Transaction.TransactionType type;
+            try {
+                type = Transaction.TransactionType.valueOf(request.queryParam("type").orElseThrow().toUpperCase());
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid transaction type. Use INCOME or EXPENSE");
+            }
+            LocalDateTime[] window = window(request);
+            return reactiveDashboardService.getCategorySummary(userId, window[0], window[1], type)
+                    .flatMap(summary -> ServerResponse.ok().bodyValue(ApiResponse.success(summary)));
+        });
+    }
+
+    public Mono<ServerResponse> divisionSummary(ServerRequest request) {
+        return userOf(request).flatMap(userId -> {
+            LocalDateTime[] window = window(request);
+            return reactiveDashboardService.getDivisionSummary(userId, window[0], window[1])
+                    .flatMap(summary -> ServerResponse.ok().bodyValue(ApiResponse.success(summary)));
+        });
+    }
+
+    public Mono<ServerResponse> overview(ServerRequest request) {
+        return userOf(request).flatMap(userId -> {
+            String period = request.queryParam("period").orElse("MONTHLY");
+            LocalDateTime[] window = window(request);
+            return reactiveDashboardService.getOverview(userId, period, periodDate(request), year(request),
+                            window[0], window[1])
+                    .flatMap(overview -> ServerResponse.ok().bodyValue(ApiResponse.success(overview)));
+        });
+    }
+
+    private static Mono<String> userOf(ServerRequest request) {
+        return ReactiveTransactionHandler.userOf(request);
+    }
+
+    private static LocalDateTime periodDate(ServerRequest request) {
+        return DashboardController.periodDate(request.queryParam("date").orElse(null));
+    }
+
+    private static int year(ServerRequest request) {
+        try {
+            return request.queryParam("year").map(Integer::parseInt).orElse(LocalDateTime.now().getYear());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid year");
+        }
+    }
+
+    private static LocalDateTime[] window(ServerRequest request) {
+        return DashboardController.window(request.queryParam("startDate").orElse(null),
+                request.queryParam("endDate").orElse(null));
+    }
+}
@@ -0,0 +1,117 @@
+package com.moneymanager.controller;
+
+import com.moneymanager.dto.ApiResponse;
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.exception.BadRequestException;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.service.ReactiveTransactionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+// WebFlux handlers for the transaction and transfer list reads ("reactive" profile). Same
+// parameters and response bodies as TransactionController and TransferController.
+@Component
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveTransactionHandler {
+
+    private final ReactiveTransactionService reactiveTransactionService;
+
+    public Mono<ServerResponse> list(ServerRequest request) {
+        return userOf(request).flatMap(userId -> {
+            TransactionFilter filter = filterOf(userId, request);
+            return reactiveTransactionService.getTransactionsByFilters(filter)
+                    .collectList()
+                    .flatMap(transactions -> ServerResponse.ok().bodyValue(ApiResponse.success(transactions)));
+        });
+    }
+
+    public Mono<ServerResponse> page(ServerRequest request) {
+        return userOf(request).flatMap(userId -> {
+            int limit = limitParam(request);
+            TransactionCursor after = TransactionController.cursorOf(request.queryParam("cursor").orElse(null));
+            return reactiveTransactionService.getTransactionPage(filterOf(userId, request), after, limit)
+                    .flatMap(page -> ServerResponse.ok().bodyValue(ApiResponse.success(page)));
+        });
+    }
+
+    // Each transaction is written as soon as Mongo returns it
+    public Mono<ServerResponse> stream(ServerRequest request) {
+        return userOf(request).flatMap(userId -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reactiveTransactionService.streamTransactions(filterOf(userId, request)), Transaction.class));
+    }
+
+    public Mono<ServerResponse> transfers(ServerRequest request) {
+        return userOf(request).flatMap(userId -> reactiveTransactionService
+                .getTransfers(userId, dateParam(request, "startDate"),
+                        dateParam(request, "endDate"))
+                .collectList()
+                .flatMap(transfers -> ServerResponse.ok().bodyValue(ApiResponse.success(transfers))));
+    }
+
+    public Mono<ServerResponse> transferPage(ServerRequest request) {
+        return userOf(request).flatMap(userId -> {
+            int limit = limitParam(request);
+            TransactionCursor after = TransactionController.cursorOf(request.queryParam("cursor").orElse(null));
+            return reactiveTransactionService.getTransferPage(userId,
+                            request.queryParam("accountId").orElse(null),
+                            dateParam(request, "startDate"), dateParam(request, "endDate"), after, limit)
+                    .flatMap(page -> ServerResponse.ok().bodyValue(ApiResponse.success(page)));
+        });
+    }
+
+    private static int limitParam(ServerRequest request) {
+        int limit;
+        try {
+            limit = Integer.parseInt(request.queryParam("limit").orElseThrow());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("limit must be a number");
+        }
+        TransactionController.checkPageLimit(limit);
+        return limit;
+    }
+
+    // The authenticated caller, as @CurrentUser on the MVC endpoints. SecurityConfig only lets
+    // authenticated requests through, so a missing principal is a configuration error.
+    static Mono<String> userOf(ServerRequest request) {
+        return request.principal()
+                .map(Principal::getName)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("No authenticated user")));
+    }
+
+    private static TransactionFilter filterOf(String userId, ServerRequest request) {
+        return TransactionController.toFilter(
+                userId,
+                dateParam(request, "startDate"),
+                dateParam(request, "endDate"),
+                request.queryParam("type").orElse(null),
+                request.queryParam("division").orElse(null),
+                request.queryParam("category").orElse(null)
+        );
+    }
+
+    // Same format as @DateTimeFormat(iso = DATE_TIME) on the MVC endpoints
+    private static LocalDateTime dateParam(ServerRequest request, String name) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value, DateTimeFormatter.ISO_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid " + name + ". Use ISO 8601: YYYY-MM-DDTHH:mm:ss");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.moneymanager.controller;
+
+import com.moneymanager.dto.ApiResponse;
+import com.moneymanager.dto.SlowRequestDTO;
+import com.moneymanager.service.QueryBudgetService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/slow-requests")
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class SlowRequestController {
+    
+    private final QueryBudgetService queryBudgetService;
+    
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<SlowRequestDTO>>> getSlowRequests() {
+        return ResponseEntity.ok(ApiResponse.success(queryBudgetService.getWorstOffenders()));
+    }
+    
+    @DeleteMapping
+    public ResponseEntity<ApiResponse<Void>> clearSlowRequests() {
+        queryBudgetService.clear();
+        return ResponseEntity.ok(ApiResponse.success(null, "Slow request list cleared"));
+    }
+}
@@ -1,88 +1,312 @@
 package com.moneymanager.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneymanager.config.CurrentUser;
 import com.moneymanager.dto.ApiResponse;
+import com.moneymanager.dto.BulkImportResultDTO;
+import com.moneymanager.dto.ImportProgressDTO;
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.dto.TransactionPageDTO;
+import com.moneymanager.exception.BadRequestException;
 import com.moneymanager.model.Transaction;
+import com.moneymanager.service.ExportService;
+import com.moneymanager.service.StatementImportService;
+import com.moneymanager.service.TransactionImportService;
 import com.moneymanager.service.TransactionService;
+import com.moneymanager.service.WriteVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/transactions")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class TransactionController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String OFX = "application/x-ofx";
+
     private final TransactionService transactionService;
+    private final TransactionImportService transactionImportService;
+    private final StatementImportService statementImportService;
+    private final ExportService exportService;
+    private final WriteVersionService writeVersionService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
-    public ResponseEntity<ApiResponse<Transaction>> createTransaction(@RequestBody Transaction transaction) {
-        Transaction created = transactionService.createTransaction(transaction);
+    public ResponseEntity<ApiResponse<Transaction>> createTransaction(
+            @CurrentUser String userId,
+            @RequestBody Transaction transaction
+    ) {
+        Transaction created = transactionService.createTransaction(userId, transaction);
         return ResponseEntity
                 .status(HttpStatus.CREATED)
                 .body(ApiResponse.success(created, "Transaction created successfully"));
     }
 
+    // JSON array or NDJSON body; rows are written in batches and failures are reported per row
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ResponseEntity<ApiResponse<BulkImportResultDTO>> createTransactionsBulk(
+            @CurrentUser String userId,
+            InputStream body
+    ) throws IOException {
+        BulkImportResultDTO result = transactionImportService.importJson(userId, body);
+        return ResponseEntity.ok(ApiResponse.success(result,
+                "Imported " + result.getInserted() + " of " + result.getReceived() + " transactions"));
+    }
+
+    // Bank statement upload (CSV, or OFX with format=OFX). Pass an importId to poll progress
+    // at GET /import/{importId} while the upload is still running
+    @PostMapping(value = "/import", consumes = {"text/csv", OFX, MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ApiResponse<ImportProgressDTO>> importStatement(
+            @CurrentUser String userId,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String division,
+            @RequestParam(required = false) String importId,
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            InputStream body
+    ) throws IOException {
+        StatementImportService.Format statementFormat;
+        try {
+            statementFormat = format != null
+                    ? StatementImportService.Format.valueOf(format.toUpperCase())
+                    : contentType != null && contentType.startsWith(OFX)
+                            ? StatementImportService.Format.OFX
+                            : StatementImportService.Format.CSV;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid format. Use CSV or OFX");
+        }
+
+        Transaction.Division divisionEnum = null;
+        if (division != null) {
+            try {
+                divisionEnum = Transaction.Division.valueOf(division.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid division. Use OFFICE or PERSONAL");
+            }
+        }
+
+        ImportProgressDTO result = statementImportService.importStatement(userId, importId, statementFormat, body, divisionEnum);
+        return ResponseEntity.ok(ApiResponse.success(result,
+                "Imported " + result.getInserted() + " of " + result.getRowsRead() + " statement rows"));
+    }
+
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<ApiResponse<ImportProgressDTO>> getImportProgress(
+            @CurrentUser String userId,
+            @PathVariable String importId
+    ) {
+        return ResponseEntity.ok()
+                .cacheControl(ConditionalGet.NO_STORE)
+                .body(ApiResponse.success(statementImportService.getProgress(userId, importId)));
+    }
+
     @GetMapping
     public ResponseEntity<ApiResponse<List<Transaction>>> getAllTransactions(
+            @CurrentUser String userId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String division,
-            @RequestParam(required = false) String category
+            @RequestParam(required = false) String category,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        // Convert string parameters to enums
-        Transaction.TransactionType transactionType = null;
-        Transaction.Division divisionEnum = null;
+        String etag = transactionsEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
+        }
 
-        if (type != null) {
-            try {
-                transactionType = Transaction.TransactionType.valueOf(type.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Invalid transaction type. Use INCOME or EXPENSE"));
-            }
+        // Service handles any combination of date and field filters
+        List<Transaction> transactions = transactionService.getTransactionsByFilters(
+                toFilter(userId, startDate, endDate, type, division, category)
+        );
+
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE).body(ApiResponse.success(transactions));
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponse<TransactionPageDTO>> getTransactionPage(
+            @CurrentUser String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String division,
+            @RequestParam(required = false) String category,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        checkPageLimit(limit);
+        String etag = transactionsEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
         }
 
-        if (division != null) {
-            try {
-                divisionEnum = Transaction.Division.valueOf(division.toUpperCase());
-            } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Invalid division. Use OFFICE or PERSONAL"));
+        TransactionPageDTO page = transactionService.getTransactionPage(
+                toFilter(userId, startDate, endDate, type, division, category), cursorOf(cursor), limit
+        );
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE).body(ApiResponse.success(page));
+    }
+
+    // Newline-delimited JSON written straight from a Mongo cursor, one transaction per line
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamTransactions(
+            @CurrentUser String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String division,
+            @RequestParam(required = false) String category,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String etag = transactionsEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
+        }
+
+        TransactionFilter filter = toFilter(userId, startDate, endDate, type, division, category);
+
+        StreamingResponseBody body = out -> {
+            try (Stream<Transaction> transactions = transactionService.streamTransactions(filter)) {
+                Iterator<Transaction> iterator = transactions.iterator();
+                while (iterator.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    out.write('\n');
+                }
             }
+        };
+
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE)
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    // CSV (default) or XLSX download of every transaction matching the filters, read from a cursor;
+    // only CSV is streamed to the client as it is read
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @CurrentUser String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String division,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String etag = transactionsEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
         }
 
-        // Service handles both date-based and non-date-based filtering
-        List<Transaction> transactions = transactionService.getTransactionsByFilters(
-                startDate, endDate, transactionType, divisionEnum, category
-        );
+        TransactionFilter filter = toFilter(userId, startDate, endDate, type, division, category);
+        ExportService.Format exportFormat = ExportService.formatOf(format);
 
-        return ResponseEntity.ok(ApiResponse.success(transactions));
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE)
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions." + exportFormat.getExtension()).build().toString())
+                .body(out -> exportService.exportTransactions(filter, exportFormat, out));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Transaction>> getTransactionById(@PathVariable String id) {
-        Transaction transaction = transactionService.getTransactionById(id);
-        return ResponseEntity.ok(ApiResponse.success(transaction));
+    public ResponseEntity<ApiResponse<Transaction>> getTransactionById(
+            @CurrentUser String userId,
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String etag = transactionsEtag(userId);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag, ConditionalGet.REVALIDATE);
+        }
+
+        Transaction transaction = transactionService.getTransactionById(userId, id);
+        return ConditionalGet.ok(etag, ConditionalGet.REVALIDATE).body(ApiResponse.success(transaction));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Transaction>> updateTransaction(
+            @CurrentUser String userId,
             @PathVariable String id,
             @RequestBody Transaction transaction
     ) {
-        Transaction updated = transactionService.updateTransaction(id, transaction);
+        Transaction updated = transactionService.updateTransaction(userId, id, transaction);
         return ResponseEntity.ok(ApiResponse.success(updated, "Transaction updated successfully"));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<ApiResponse<Void>> deleteTransaction(@PathVariable String id) {
-        transactionService.deleteTransaction(id);
+    public ResponseEntity<ApiResponse<Void>> deleteTransaction(
+            @CurrentUser String userId,
+            @PathVariable String id
+    ) {
+        transactionService.deleteTransaction(userId, id);
         return ResponseEntity.ok(ApiResponse.success(null, "Transaction deleted successfully"));
     }
-}
\ No newline at end of file
+
+    // Transactions carry isEditable, which turns false 12 hours after creation without any write,
+    // so their ETags also move on every minute
+    private String transactionsEtag(String userId) {
+        return writeVersionService.etag(userId, LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES),
+                WriteVersionService.Collection.TRANSACTIONS);
+    }
+
+    // Shared by the paged transaction and transfer listings, MVC and reactive
+    static void checkPageLimit(int limit) {
+        if (limit < 1 || limit > TransactionService.MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + TransactionService.MAX_PAGE_SIZE);
+        }
+    }
+
+    static TransactionCursor cursorOf(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return TransactionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor. Pass the nextCursor value from the previous page");
+        }
+    }
+
+    static TransactionFilter toFilter(String userId, LocalDateTime startDate, LocalDateTime endDate,
+                                      String type, String division, String category) {
+        // Convert string parameters to enums
+        Transaction.TransactionType transactionType = null;
+        Transaction.Division divisionEnum = null;
+
+        if (type != null) {
+            try {
+                transactionType = Transaction.TransactionType.valueOf(type.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid transaction type. Use INCOME or EXPENSE");
+            }
+        }
+
+        if (division != null) {
+            try {
+                divisionEnum = Transaction.Division.valueOf(division.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid division. Use OFFICE or PERSONAL");
+            }
+        }
+
+        return new TransactionFilter(userId, startDate, endDate, transactionType, divisionEnum, category);
+    }
+}
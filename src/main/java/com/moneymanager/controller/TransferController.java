@@ -1,27 +1,43 @@
 package com.moneymanager.controller;
 
+import com.moneymanager.dto.AccountFlowDTO;
+import com.moneymanager.config.CurrentUser;
 import com.moneymanager.dto.ApiResponse;
+import com.moneymanager.dto.TransferPageDTO;
 import com.moneymanager.model.Transfer;
 import com.moneymanager.service.AccountService;
+import com.moneymanager.service.ExportService;
+import com.moneymanager.service.TransferAnalyticsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/transfers")
+@Profile("!reactive")
 @RequiredArgsConstructor
 public class TransferController {
     
     private final AccountService accountService;
+    private final ExportService exportService;
+    private final TransferAnalyticsService transferAnalyticsService;
     
     @PostMapping
-    public ResponseEntity<ApiResponse<Transfer>> createTransfer(@RequestBody Transfer transfer) {
-        Transfer created = accountService.createTransfer(transfer);
+    public ResponseEntity<ApiResponse<Transfer>> createTransfer(
+            @CurrentUser String userId,
+            @RequestBody Transfer transfer
+    ) {
+        Transfer created = accountService.createTransfer(userId, transfer);
         return ResponseEntity
             .status(HttpStatus.CREATED)
             .body(ApiResponse.success(created, "Transfer completed successfully"));
@@ -29,23 +45,73 @@ public class TransferController {
     
     @GetMapping
     public ResponseEntity<ApiResponse<List<Transfer>>> getAllTransfers(
+            @CurrentUser String userId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate
     ) {
         List<Transfer> transfers;
         
         if (startDate != null && endDate != null) {
-            transfers = accountService.getTransfersByDateRange(startDate, endDate);
+            transfers = accountService.getTransfersByDateRange(userId, startDate, endDate);
         } else {
-            transfers = accountService.getAllTransfers();
+            transfers = accountService.getAllTransfers(userId);
         }
         
         return ResponseEntity.ok(ApiResponse.success(transfers));
     }
     
+    // Keyset pages, newest first; accountId matches either side of the transfer
+    @GetMapping(params = "limit")
+    public ResponseEntity<ApiResponse<TransferPageDTO>> getTransferPage(
+            @CurrentUser String userId,
+            @RequestParam(required = false) String accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        TransactionController.checkPageLimit(limit);
+        TransferPageDTO page = accountService.getTransferPage(
+            userId, accountId, startDate, endDate, TransactionController.cursorOf(cursor), limit
+        );
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+    
+    // Inflow, outflow and net per account over the range, with a monthly series for each
+    @GetMapping("/analytics")
+    public ResponseEntity<ApiResponse<List<AccountFlowDTO>>> getTransferAnalytics(
+            @CurrentUser String userId,
+            @RequestParam(required = false) String accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate
+    ) {
+        List<AccountFlowDTO> flows = transferAnalyticsService.getAccountFlows(userId, accountId, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(flows));
+    }
+    
+    // CSV (default) or XLSX download; both dates are optional and inclusive
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransfers(
+            @CurrentUser String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "csv") String format
+    ) {
+        ExportService.Format exportFormat = ExportService.formatOf(format);
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("transfers." + exportFormat.getExtension()).build().toString())
+            .body(out -> exportService.exportTransfers(userId, startDate, endDate, exportFormat, out));
+    }
+    
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Transfer>> getTransferById(@PathVariable String id) {
-        Transfer transfer = accountService.getTransferById(id);
+    public ResponseEntity<ApiResponse<Transfer>> getTransferById(
+            @CurrentUser String userId,
+            @PathVariable String id
+    ) {
+        Transfer transfer = accountService.getTransferById(userId, id);
         return ResponseEntity.ok(ApiResponse.success(transfer));
     }
 }
@@ -0,0 +1,21 @@
+package com.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountFlowDTO {
+    private String accountId;
+    private String accountName; // null if the account has been deleted
+    private Double inflow;
+    private Double outflow;
+    private Double net;
+    private Long transfersIn;
+    private Long transfersOut;
+    private List<MonthlyFlowDTO> monthly; // every month of the range, oldest first
+}
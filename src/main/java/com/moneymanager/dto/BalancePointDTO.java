@@ -0,0 +1,15 @@
+package com.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalancePointDTO {
+    private LocalDateTime date;
+    private Double balance; // null before the account's ledger starts
+}
@@ -0,0 +1,27 @@
+package com.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDTO {
+    private Long received = 0L;
+    private Long inserted = 0L;
+    private Long duplicates = 0L; // rows whose importKey already exists
+    private Long failed = 0L;
+    private List<RowFailure> failures = new ArrayList<>(); // capped; see failed for the full count
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowFailure {
+        private Long row; // 1-based position in the request body
+        private String error;
+    }
+}
@@ -0,0 +1,22 @@
+package com.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChartBucketDTO {
+    
+    // Lower boundary of the bucket, as returned in $bucket's _id
+    @Id
+    private LocalDateTime bucketStart;
+    
+    private Long income; // minor units
+    
+    private Long expense; // minor units
+}
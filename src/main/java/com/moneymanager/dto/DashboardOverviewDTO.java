@@ -0,0 +1,22 @@
+package com.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Everything the dashboard page loads, in one response
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardOverviewDTO {
+    private DashboardSummaryDTO summary;
+    private ChartDataDTO chart;
+    private List<CategorySummaryDTO> incomeByCategory;
+    private List<CategorySummaryDTO> expenseByCategory;
+    private DivisionSummaryDTO divisionSummary;
+    private LocalDateTime startDate; // window of the category and division summaries
+    private LocalDateTime endDate;
+}
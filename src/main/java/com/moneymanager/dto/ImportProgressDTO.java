@@ -0,0 +1,25 @@
+package com.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportProgressDTO {
+    private String importId;
+    private String format; // CSV or OFX
+    private String status; // RUNNING, COMPLETED or FAILED
+    private Long rowsRead;
+    private Long inserted;
+    private Long duplicates;
+    private Long failed;
+    private List<BulkImportResultDTO.RowFailure> failures; // filled in once the import has finished
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,15 @@
+package com.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyFlowDTO {
+    private String month; // yyyy-MM
+    private Double inflow;
+    private Double outflow;
+    private Double net;
+}
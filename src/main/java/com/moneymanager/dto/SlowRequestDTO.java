@@ -0,0 +1,22 @@
+package com.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowRequestDTO {
+    private String method;
+    private String path;
+    private Integer queries;
+    private Long documents;
+    private Long durationMillis;
+    // "<command> <collection>" -> times issued
+    private Map<String, Long> commands;
+    private LocalDateTime at;
+}
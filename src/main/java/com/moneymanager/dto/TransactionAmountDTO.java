@@ -0,0 +1,21 @@
+package com.moneymanager.dto;
+
+import com.moneymanager.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Read model for aggregations: only the fields needed to sum amounts are fetched and decoded
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionAmountDTO {
+    private String userId;
+    private Transaction.TransactionType type;
+    private Transaction.Division division;
+    private String category;
+    private Long amount; // minor units
+    private LocalDateTime date;
+}
@@ -0,0 +1,47 @@
+package com.moneymanager.dto;
+
+import com.moneymanager.model.Transaction;
+import com.moneymanager.model.Transfer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Keyset position in the (date desc, id desc) order of transactions or transfers, exchanged with
+// clients as an opaque token
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionCursor {
+    private LocalDateTime date;
+    private String id;
+    
+    public static TransactionCursor after(Transaction transaction) {
+        return new TransactionCursor(transaction.getDate(), transaction.getId());
+    }
+    
+    public static TransactionCursor after(Transfer transfer) {
+        return new TransactionCursor(transfer.getDate(), transfer.getId());
+    }
+    
+    public String encode() {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new TransactionCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                raw.substring(separator + 1)
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.moneymanager.dto;
+
+import com.moneymanager.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Filters shared by the transaction list, page and stream endpoints. userId is required and
+// scopes every query to one owner; for the others null means "any".
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionFilter {
+    private String userId;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private Transaction.TransactionType type;
+    private Transaction.Division division;
+    private String category;
+}
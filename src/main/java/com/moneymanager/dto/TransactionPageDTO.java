@@ -0,0 +1,16 @@
+package com.moneymanager.dto;
+
+import com.moneymanager.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageDTO {
+    private List<Transaction> items;
+    private String nextCursor; // null on the last page
+}
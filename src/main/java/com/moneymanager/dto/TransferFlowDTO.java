@@ -0,0 +1,20 @@
+package com.moneymanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Transfers into or out of one account in one month, as summed by the transfer flow aggregation
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferFlowDTO {
+    
+    private String accountId;
+    
+    private String month; // yyyy-MM
+    
+    private Long amount; // minor units
+    
+    private Long count;
+}
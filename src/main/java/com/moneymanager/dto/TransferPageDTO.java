@@ -0,0 +1,16 @@
+package com.moneymanager.dto;
+
+import com.moneymanager.model.Transfer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferPageDTO {
+    private List<Transfer> items;
+    private String nextCursor; // null on the last page
+}
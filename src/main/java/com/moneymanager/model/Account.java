@@ -1,12 +1,17 @@
 package com.moneymanager.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 
 import java.time.LocalDateTime;
 
@@ -14,14 +19,23 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "accounts")
+@Sharded(shardKey = "userId", immutableKey = true)
+@CompoundIndex(name = "user_account_name", def = "{ 'userId': 1, 'accountName': 1 }")
 public class Account {
     
     @Id
     private String id;
     
+    private String userId;
+    
     private String accountName;
     
-    private Double balance;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long balance; // minor units
+    
+    @Version
+    private Long version;
     
     @CreatedDate
     private LocalDateTime createdAt;
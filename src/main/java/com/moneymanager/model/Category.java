@@ -4,17 +4,23 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "categories")
+@Sharded(shardKey = "userId", immutableKey = true)
+@CompoundIndex(name = "user_name", def = "{ 'userId': 1, 'name': 1 }")
 public class Category {
     
     @Id
     private String id;
     
+    private String userId;
+    
     private String name;
     
     private CategoryType type; // INCOME, EXPENSE, BOTH
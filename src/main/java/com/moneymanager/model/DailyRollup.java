@@ -0,0 +1,37 @@
+package com.moneymanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "daily_rollups")
+@Sharded(shardKey = "userId", immutableKey = true)
+@CompoundIndex(name = "user_day", def = "{ 'userId': 1, 'day': 1 }")
+public class DailyRollup {
+    
+    @Id
+    private String id; // userId|day|type|division|category
+    
+    private String userId;
+    
+    private LocalDate day;
+    
+    private Transaction.TransactionType type;
+    
+    private Transaction.Division division;
+    
+    private String category;
+    
+    private Long sum; // minor units
+    
+    private Long count;
+}
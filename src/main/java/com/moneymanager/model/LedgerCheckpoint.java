@@ -0,0 +1,38 @@
+package com.moneymanager.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+
+import java.time.LocalDateTime;
+
+// An account's balance after the ledger entry with the same seq
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "account_ledger_checkpoints")
+@Sharded(shardKey = "userId", immutableKey = true)
+@CompoundIndexes({
+    @CompoundIndex(name = "user_account_seq", def = "{ 'userId': 1, 'accountId': 1, 'seq': 1 }", unique = true),
+    @CompoundIndex(name = "user_account_posted_seq", def = "{ 'userId': 1, 'accountId': 1, 'postedAt': 1, 'seq': 1 }")
+})
+public class LedgerCheckpoint {
+    
+    @Id
+    private String id;
+    
+    private String userId;
+    
+    private String accountId;
+    
+    private Long seq;
+    
+    private Long balance; // minor units
+    
+    private LocalDateTime postedAt;
+}
@@ -0,0 +1,54 @@
+package com.moneymanager.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
+
+import java.time.LocalDateTime;
+
+// One balance change of an account. Entries are only ever inserted; seq is the account's
+// version right after the change, so it orders an account's entries and is unique per account.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "account_ledger")
+@Sharded(shardKey = "userId", immutableKey = true)
+@CompoundIndexes({
+    // Tail scans after a checkpoint
+    @CompoundIndex(name = "user_account_seq", def = "{ 'userId': 1, 'accountId': 1, 'seq': 1 }", unique = true),
+    // Balance history over a date range
+    @CompoundIndex(name = "user_account_posted", def = "{ 'userId': 1, 'accountId': 1, 'postedAt': 1 }")
+})
+public class LedgerEntry {
+    
+    @Id
+    private String id;
+    
+    private String userId;
+    
+    private String accountId;
+    
+    private Long seq;
+    
+    private EntryType type;
+    
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long delta; // minor units
+    
+    private String referenceId; // transfer id for transfer entries
+    
+    private LocalDateTime postedAt;
+    
+    public enum EntryType {
+        OPENING, ADJUSTMENT, TRANSFER_IN, TRANSFER_OUT,
+        RECONCILIATION // a balance change whose own entry was never recorded
+    }
+}
@@ -0,0 +1,81 @@
+package com.moneymanager.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Fixed-point money: amounts are held as a long count of minor units (cents) in Java and as
+// int64 in Mongo, so sums are exact and the hot loops work on primitives. The API still
+// speaks decimal major units; the nested Jackson (de)serializers convert at the edge.
+public final class Money {
+    
+    public static final int SCALE = 2;
+    public static final long MINOR_PER_MAJOR = 100;
+    
+    private Money() {
+    }
+    
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+    
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+    
+    public static long negate(long amount) {
+        return Math.negateExact(amount);
+    }
+    
+    // Rounds half-up to the minor unit
+    public static long fromMajor(BigDecimal major) {
+        return major.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    public static long fromMajor(double major) {
+        return fromMajor(BigDecimal.valueOf(major));
+    }
+    
+    public static BigDecimal toBigDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+    
+    // For response DTOs that still carry Double; exact for any realistic balance
+    public static double toMajor(long minor) {
+        return (double) minor / MINOR_PER_MAJOR;
+    }
+    
+    public static class Serializer extends JsonSerializer<Long> {
+        @Override
+        public void serialize(Long value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(toBigDecimal(value));
+        }
+    }
+    
+    // Accepts JSON numbers and numeric strings ("12.50"), which the API took before amounts became longs
+    public static class Deserializer extends JsonDeserializer<Long> {
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                String text = p.getText().trim();
+                if (text.isEmpty()) {
+                    return null;
+                }
+                try {
+                    return fromMajor(new BigDecimal(text));
+                } catch (NumberFormatException e) {
+                    return (Long) ctxt.handleWeirdStringValue(Long.class, text, "not a decimal amount");
+                }
+            }
+            return fromMajor(p.getDecimalValue());
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.moneymanager.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 
 import java.time.LocalDateTime;
 
@@ -14,14 +19,32 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "transactions")
+// Ranged shard key: a user's documents stay together and per-user queries target one shard
+@Sharded(shardKey = "userId", immutableKey = true)
+@CompoundIndexes({
+    // Date ranges, dashboards and the (date desc, id desc) keyset order
+    @CompoundIndex(name = "user_date_id", def = "{ 'userId': 1, 'date': 1, '_id': 1 }"),
+    // Equality filters first, date range last, so every filter combination has an index prefix
+    @CompoundIndex(name = "user_type_division_category_date",
+        def = "{ 'userId': 1, 'type': 1, 'division': 1, 'category': 1, 'date': 1 }"),
+    @CompoundIndex(name = "user_division_category_date", def = "{ 'userId': 1, 'division': 1, 'category': 1, 'date': 1 }"),
+    @CompoundIndex(name = "user_category_date", def = "{ 'userId': 1, 'category': 1, 'date': 1 }"),
+    // Statement re-imports are rejected per user; rows without a key are not indexed
+    @CompoundIndex(name = "user_import_key", def = "{ 'userId': 1, 'importKey': 1 }", unique = true,
+        partialFilter = "{ 'importKey': { $exists: true } }")
+})
 public class Transaction {
     
     @Id
     private String id;
     
+    private String userId; // owner; every query is scoped by it and it leads every index
+    
     private TransactionType type; // INCOME or EXPENSE
     
-    private Double amount;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long amount; // minor units
     
     private String category;
     
@@ -31,6 +54,9 @@ public class Transaction {
     
     private LocalDateTime date;
     
+    // Set by statement imports (bank reference or row fingerprint) so re-imported rows are rejected as duplicates
+    private String importKey;
+    
     @CreatedDate
     private LocalDateTime createdAt;
     
@@ -1,11 +1,16 @@
 package com.moneymanager.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 
 import java.time.LocalDateTime;
 
@@ -13,16 +18,28 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "transfers")
+@Sharded(shardKey = "userId", immutableKey = true)
+@CompoundIndexes({
+    // Date-ordered exports and the (date desc, id desc) keyset pages
+    @CompoundIndex(name = "user_date_id", def = "{ 'userId': 1, 'date': 1, '_id': 1 }"),
+    // Per-account flows and listings: one index for each side of the transfer
+    @CompoundIndex(name = "user_from_account_date", def = "{ 'userId': 1, 'fromAccountId': 1, 'date': 1 }"),
+    @CompoundIndex(name = "user_to_account_date", def = "{ 'userId': 1, 'toAccountId': 1, 'date': 1 }")
+})
 public class Transfer {
     
     @Id
     private String id;
     
+    private String userId;
+    
     private String fromAccountId;
     
     private String toAccountId;
     
-    private Double amount;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long amount; // minor units
     
     private String description;
     
@@ -4,10 +4,15 @@ import com.moneymanager.model.Account;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AccountRepository extends MongoRepository<Account, String> {
+public interface AccountRepository extends MongoRepository<Account, String>, AccountRepositoryCustom {
     
-    Optional<Account> findByAccountName(String accountName);
+    List<Account> findByUserId(String userId);
+    
+    Optional<Account> findByIdAndUserId(String id, String userId);
+    
+    Optional<Account> findByUserIdAndAccountName(String userId, String accountName);
 }
@@ -0,0 +1,13 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.model.Account;
+
+public interface AccountRepositoryCustom {
+
+    // Amounts are in minor units. Atomically subtracts amount if the balance covers it; returns the updated account,
+    // or null when the user has no such account or the balance is insufficient
+    Account debit(String userId, String id, long amount);
+
+    // Atomically adds amount; returns the updated account, or null when the user has no such account
+    Account credit(String userId, String id, long amount);
+}
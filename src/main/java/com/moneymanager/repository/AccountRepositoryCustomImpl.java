@@ -0,0 +1,38 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.model.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Account debit(String userId, String id, long amount) {
+        // The balance guard and the decrement run as one findAndModify, so concurrent
+        // transfers can't both pass the check and overdraw the account
+        Query query = Query.query(Criteria.where("userId").is(userId).and("id").is(id).and("balance").gte(amount));
+        return mongoTemplate.findAndModify(query, balanceChange(-amount),
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+    }
+
+    @Override
+    public Account credit(String userId, String id, long amount) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("id").is(id));
+        return mongoTemplate.findAndModify(query, balanceChange(amount),
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+    }
+
+    // Bump the version too, so a concurrent read-modify-write of the account fails its optimistic check.
+    // updatedAt is set by the server under the same document lock, so it never goes back as the
+    // version goes up; the ledger uses the pair to order and date balance changes.
+    private static Update balanceChange(long delta) {
+        return new Update().inc("balance", delta).inc("version", 1).currentDate("updatedAt");
+    }
+}
@@ -0,0 +1,74 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.ChartBucketDTO;
+import com.moneymanager.model.Transaction;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+final class BucketAggregations {
+
+    private BucketAggregations() {
+    }
+
+    static List<ChartBucketDTO> sumByTypeInBuckets(MongoTemplate mongoTemplate,
+                                                   Class<?> inputType,
+                                                   String userId,
+                                                   String dateField,
+                                                   String amountField,
+                                                   List<LocalDateTime> boundaries) {
+        if (boundaries.size() < 2) {
+            return List.of();
+        }
+        return mongoTemplate.aggregate(aggregation(userId, dateField, amountField, boundaries), inputType,
+                        ChartBucketDTO.class)
+                .getMappedResults();
+    }
+
+    static Flux<ChartBucketDTO> sumByTypeInBuckets(ReactiveMongoTemplate mongoTemplate,
+                                                   Class<?> inputType,
+                                                   String userId,
+                                                   String dateField,
+                                                   String amountField,
+                                                   List<LocalDateTime> boundaries) {
+        if (boundaries.size() < 2) {
+            return Flux.empty();
+        }
+        return mongoTemplate.aggregate(aggregation(userId, dateField, amountField, boundaries), inputType,
+                ChartBucketDTO.class);
+    }
+
+    private static Aggregation aggregation(String userId, String dateField, String amountField,
+                                           List<LocalDateTime> boundaries) {
+        // $bucket needs sorted boundaries of a single BSON type, so convert the same way
+        // the mapping layer converts LocalDateTime fields on write
+        Object[] bounds = boundaries.stream().map(BucketAggregations::toDate).toArray();
+
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId)
+                        .and(dateField).gte(bounds[0]).lt(bounds[bounds.length - 1])),
+                Aggregation.bucket(dateField)
+                        .withBoundaries(bounds)
+                        .andOutput(sumOf(amountField, Transaction.TransactionType.INCOME)).sum().as("income")
+                        .andOutput(sumOf(amountField, Transaction.TransactionType.EXPENSE)).sum().as("expense")
+        );
+    }
+
+    private static ConditionalOperators.Cond sumOf(String amountField, Transaction.TransactionType type) {
+        return ConditionalOperators.when(Criteria.where("type").is(type.name()))
+                .thenValueOf(amountField)
+                .otherwise(0);
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -10,7 +10,11 @@ import java.util.Optional;
 @Repository
 public interface CategoryRepository extends MongoRepository<Category, String> {
     
-    Optional<Category> findByName(String name);
+    List<Category> findByUserId(String userId);
     
-    List<Category> findByType(Category.CategoryType type);
+    Optional<Category> findByUserIdAndName(String userId, String name);
+    
+    List<Category> findByUserIdAndType(String userId, Category.CategoryType type);
+    
+    boolean existsByUserId(String userId);
 }
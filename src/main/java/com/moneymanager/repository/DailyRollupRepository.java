@@ -0,0 +1,22 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.model.DailyRollup;
+import com.moneymanager.model.Transaction;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyRollupRepository extends MongoRepository<DailyRollup, String>, DailyRollupRepositoryCustom {
+
+    // Inclusive on both ends, unlike the derived Between finders
+    @Query("{ 'userId': ?0, 'day': { $gte: ?1, $lte: ?2 } }")
+    List<DailyRollup> findByDayRange(String userId, LocalDate fromDay, LocalDate toDay);
+
+    @Query("{ 'userId': ?0, 'day': { $gte: ?1, $lte: ?2 }, 'type': ?3 }")
+    List<DailyRollup> findByDayRangeAndType(String userId, LocalDate fromDay, LocalDate toDay,
+                                            Transaction.TransactionType type);
+}
@@ -0,0 +1,12 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.ChartBucketDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DailyRollupRepositoryCustom {
+
+    // Same contract as TransactionRepositoryCustom#sumByTypeInBuckets; boundaries must fall on midnight
+    List<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries);
+}
@@ -0,0 +1,20 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.ChartBucketDTO;
+import com.moneymanager.model.DailyRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class DailyRollupRepositoryCustomImpl implements DailyRollupRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries) {
+        return BucketAggregations.sumByTypeInBuckets(mongoTemplate, DailyRollup.class, userId, "day", "sum", boundaries);
+    }
+}
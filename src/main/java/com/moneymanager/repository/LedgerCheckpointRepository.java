@@ -0,0 +1,25 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.model.LedgerCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface LedgerCheckpointRepository extends MongoRepository<LedgerCheckpoint, String> {
+
+    // Latest checkpoint at or before the date
+    Optional<LedgerCheckpoint> findTopByUserIdAndAccountIdAndPostedAtLessThanEqualOrderByPostedAtDescSeqDesc(
+            String userId, String accountId, LocalDateTime date);
+
+    // First checkpoint after the date; bounds the tail scan
+    Optional<LedgerCheckpoint> findTopByUserIdAndAccountIdAndPostedAtGreaterThanOrderByPostedAtAscSeqAsc(
+            String userId, String accountId, LocalDateTime date);
+
+    // Latest checkpoint by seq; the start of reconciliation
+    Optional<LedgerCheckpoint> findTopByUserIdAndAccountIdOrderBySeqDesc(String userId, String accountId);
+
+    boolean existsByUserIdAndAccountId(String userId, String accountId);
+}
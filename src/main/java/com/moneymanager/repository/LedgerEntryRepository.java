@@ -0,0 +1,31 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.model.LedgerEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface LedgerEntryRepository extends MongoRepository<LedgerEntry, String> {
+
+    // Entries with afterSeq < seq <= untilSeq posted up to asOf, oldest first
+    @Query(value = "{ 'userId': ?0, 'accountId': ?1, 'seq': { $gt: ?2, $lte: ?3 }, 'postedAt': { $lte: ?4 } }",
+           sort = "{ 'seq': 1 }")
+    List<LedgerEntry> findTail(String userId, String accountId, long afterSeq, long untilSeq, LocalDateTime asOf);
+
+    Optional<LedgerEntry> findByUserIdAndAccountIdAndSeq(String userId, String accountId, long seq);
+
+    // Every entry after afterSeq, oldest first
+    List<LedgerEntry> findByUserIdAndAccountIdAndSeqGreaterThanOrderBySeqAsc(String userId, String accountId, long afterSeq);
+
+    // Entries after afterSeq posted in (from, to], oldest first; the caller must close the stream
+    @Query(value = "{ 'userId': ?0, 'accountId': ?1, 'seq': { $gt: ?2 }, 'postedAt': { $gt: ?3, $lte: ?4 } }",
+           sort = "{ 'seq': 1 }")
+    Stream<LedgerEntry> streamPostedBetween(String userId, String accountId, long afterSeq,
+                                            LocalDateTime from, LocalDateTime to);
+}
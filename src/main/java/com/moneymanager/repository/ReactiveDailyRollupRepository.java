@@ -0,0 +1,24 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.model.DailyRollup;
+import com.moneymanager.model.Transaction;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+// Reactive counterpart of DailyRollupRepository for the "reactive" profile
+@Repository
+public interface ReactiveDailyRollupRepository extends ReactiveMongoRepository<DailyRollup, String>,
+        ReactiveDailyRollupRepositoryCustom {
+
+    // Inclusive on both ends, unlike the derived Between finders
+    @Query("{ 'userId': ?0, 'day': { $gte: ?1, $lte: ?2 } }")
+    Flux<DailyRollup> findByDayRange(String userId, LocalDate fromDay, LocalDate toDay);
+
+    @Query("{ 'userId': ?0, 'day': { $gte: ?1, $lte: ?2 }, 'type': ?3 }")
+    Flux<DailyRollup> findByDayRangeAndType(String userId, LocalDate fromDay, LocalDate toDay,
+                                            Transaction.TransactionType type);
+}
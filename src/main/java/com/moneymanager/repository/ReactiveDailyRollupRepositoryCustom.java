@@ -0,0 +1,13 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.ChartBucketDTO;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ReactiveDailyRollupRepositoryCustom {
+
+    // Same contract as DailyRollupRepositoryCustom#sumByTypeInBuckets
+    Flux<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries);
+}
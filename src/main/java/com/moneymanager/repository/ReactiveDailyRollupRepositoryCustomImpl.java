@@ -0,0 +1,21 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.ChartBucketDTO;
+import com.moneymanager.model.DailyRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ReactiveDailyRollupRepositoryCustomImpl implements ReactiveDailyRollupRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries) {
+        return BucketAggregations.sumByTypeInBuckets(mongoTemplate, DailyRollup.class, userId, "day", "sum", boundaries);
+    }
+}
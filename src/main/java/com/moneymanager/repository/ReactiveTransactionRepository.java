@@ -0,0 +1,23 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.TransactionAmountDTO;
+import com.moneymanager.model.Transaction;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+// Reactive counterpart of TransactionRepository for the "reactive" profile
+@Repository
+public interface ReactiveTransactionRepository extends ReactiveMongoRepository<Transaction, String>,
+        ReactiveTransactionRepositoryCustom {
+
+    // Projection-only reads for dashboard aggregations
+    Flux<TransactionAmountDTO> findAmountsByUserIdAndDateBetween(String userId, LocalDateTime startDate,
+                                                                 LocalDateTime endDate);
+
+    Flux<TransactionAmountDTO> findAmountsByUserIdAndDateBetweenAndType(String userId, LocalDateTime startDate,
+                                                                        LocalDateTime endDate,
+                                                                        Transaction.TransactionType type);
+}
@@ -0,0 +1,24 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.ChartBucketDTO;
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.model.Transaction;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Same queries as TransactionRepositoryCustom, emitted as documents arrive from the cursor
+public interface ReactiveTransactionRepositoryCustom {
+
+    Flux<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries);
+
+    Flux<Transaction> findByFilter(TransactionFilter filter);
+
+    // Newest first, for NDJSON streaming
+    Flux<Transaction> streamByFilter(TransactionFilter filter);
+
+    // Newest first
+    Flux<Transaction> findPage(TransactionFilter filter, TransactionCursor after, int limit);
+}
@@ -0,0 +1,45 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.ChartBucketDTO;
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ReactiveTransactionRepositoryCustomImpl implements ReactiveTransactionRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries) {
+        return BucketAggregations.sumByTypeInBuckets(mongoTemplate, Transaction.class, userId, "date", "amount", boundaries);
+    }
+
+    @Override
+    public Flux<Transaction> findByFilter(TransactionFilter filter) {
+        Query query = Query.query(TransactionRepositoryCustomImpl.filterCriteria(filter));
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    @Override
+    public Flux<Transaction> streamByFilter(TransactionFilter filter) {
+        Query query = Query.query(TransactionRepositoryCustomImpl.filterCriteria(filter))
+                .with(TransactionRepositoryCustomImpl.NEWEST_FIRST);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    @Override
+    public Flux<Transaction> findPage(TransactionFilter filter, TransactionCursor after, int limit) {
+        Query query = Query.query(TransactionRepositoryCustomImpl.pageCriteria(filter, after))
+                .with(TransactionRepositoryCustomImpl.NEWEST_FIRST)
+                .limit(limit);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+}
@@ -0,0 +1,17 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.model.Transfer;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+// Reactive counterpart of TransferRepository for the "reactive" profile
+@Repository
+public interface ReactiveTransferRepository extends ReactiveMongoRepository<Transfer, String>, ReactiveTransferRepositoryCustom {
+
+    Flux<Transfer> findByUserId(String userId);
+
+    Flux<Transfer> findByUserIdAndDateBetween(String userId, LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -0,0 +1,14 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.model.Transfer;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+public interface ReactiveTransferRepositoryCustom {
+
+    // Same page as TransferRepositoryCustom.findPage
+    Flux<Transfer> findPage(String userId, String accountId, LocalDateTime startDate, LocalDateTime endDate,
+                            TransactionCursor after, int limit);
+}
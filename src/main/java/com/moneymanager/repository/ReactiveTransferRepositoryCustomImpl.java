@@ -0,0 +1,25 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.model.Transfer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class ReactiveTransferRepositoryCustomImpl implements ReactiveTransferRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<Transfer> findPage(String userId, String accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                   TransactionCursor after, int limit) {
+        Query query = Query.query(TransferRepositoryCustomImpl.pageCriteria(userId, accountId, startDate, endDate, after))
+                .with(TransactionRepositoryCustomImpl.NEWEST_FIRST)
+                .limit(limit);
+        return mongoTemplate.find(query, Transfer.class);
+    }
+}
@@ -1,56 +1,33 @@
 package com.moneymanager.repository;
 
+import com.moneymanager.dto.TransactionAmountDTO;
 import com.moneymanager.model.Transaction;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TransactionRepository extends MongoRepository<Transaction, String> {
+public interface TransactionRepository extends MongoRepository<Transaction, String>, TransactionRepositoryCustom {
 
-    // Find transactions by date range
-    List<Transaction> findByDateBetween(LocalDateTime startDate, LocalDateTime endDate);
-
-    // Find by type
-    List<Transaction> findByType(Transaction.TransactionType type);
-
-    // Find by division
-    List<Transaction> findByDivision(Transaction.Division division);
-
-    // Find by category
-    List<Transaction> findByCategory(String category);
+    List<Transaction> findByUserId(String userId);
 
-    // Complex query - find by multiple filters
-    @Query("{ 'date': { $gte: ?0, $lte: ?1 }, 'type': ?2, 'division': ?3, 'category': ?4 }")
-    List<Transaction> findByFilters(LocalDateTime startDate, LocalDateTime endDate,
-                                    Transaction.TransactionType type,
-                                    Transaction.Division division,
-                                    String category);
+    Optional<Transaction> findByIdAndUserId(String id, String userId);
 
-    // Find by date range and type
-    List<Transaction> findByDateBetweenAndType(LocalDateTime startDate, LocalDateTime endDate,
-                                               Transaction.TransactionType type);
+    Optional<Transaction> findFirstByUserIdOrderByDateAsc(String userId);
 
-    // Find by date range and division
-    List<Transaction> findByDateBetweenAndDivision(LocalDateTime startDate, LocalDateTime endDate,
-                                                   Transaction.Division division);
-
-    // Find by date range and category
-    List<Transaction> findByDateBetweenAndCategory(LocalDateTime startDate, LocalDateTime endDate,
-                                                   String category);
-
-    // Simple filters without date range (added for better filtering)
-    List<Transaction> findByTypeAndDivisionAndCategory(Transaction.TransactionType type,
-                                                       Transaction.Division division,
-                                                       String category);
+    // Find transactions by date range
+    List<Transaction> findByUserIdAndDateBetween(String userId, LocalDateTime startDate, LocalDateTime endDate);
 
-    List<Transaction> findByTypeAndDivision(Transaction.TransactionType type,
-                                            Transaction.Division division);
+    // Projection-only reads for dashboard aggregations
+    List<TransactionAmountDTO> findAmountsByUserIdAndDateBetween(String userId, LocalDateTime startDate,
+                                                                 LocalDateTime endDate);
 
-    List<Transaction> findByTypeAndCategory(Transaction.TransactionType type, String category);
+    List<TransactionAmountDTO> findAmountsByUserIdAndDateBetweenAndType(String userId, LocalDateTime startDate,
+                                                                        LocalDateTime endDate,
+                                                                        Transaction.TransactionType type);
 
-    List<Transaction> findByDivisionAndCategory(Transaction.Division division, String category);
+    // Any combination of list filters is served by findByFilter in TransactionRepositoryCustom
 }
\ No newline at end of file
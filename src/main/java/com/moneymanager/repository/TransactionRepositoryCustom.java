@@ -0,0 +1,38 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.ChartBucketDTO;
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.model.Transaction;
+import org.bson.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface TransactionRepositoryCustom {
+
+    // Sum income and expense per bucket in a single server-side $bucket stage.
+    // Buckets are half-open [boundaries[i], boundaries[i + 1]); empty buckets are not returned.
+    List<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries);
+
+    // Every transaction of the filter's user matching it; other null filter fields are ignored and dates are inclusive
+    List<Transaction> findByFilter(TransactionFilter filter);
+
+    // queryPlanner output of the findByFilter query, used to check the filters stay on an index
+    Document explainFilter(TransactionFilter filter);
+
+    // Up to limit transactions matching the filter, newest first, strictly after the cursor (null for the first page)
+    List<Transaction> findPage(TransactionFilter filter, TransactionCursor after, int limit);
+
+    // Cursor-backed stream of every matching transaction, newest first; callers must close it
+    Stream<Transaction> streamByFilter(TransactionFilter filter);
+
+    // Sets the non-null amount, category, division, description, date and type of changes on the user's
+    // transaction in one findAndModify and returns the document as it was before, or empty when it is gone
+    Optional<Transaction> updateReturningPrevious(String userId, String id, Transaction changes, LocalDateTime updatedAt);
+
+    // Removes the user's transaction and returns it, or empty when another request already removed it
+    Optional<Transaction> removeReturningPrevious(String userId, String id);
+}
@@ -0,0 +1,132 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.ChartBucketDTO;
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    // Keyset order: date, then id to break ties between transactions with the same timestamp
+    static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "date", "id");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries) {
+        return BucketAggregations.sumByTypeInBuckets(mongoTemplate, Transaction.class, userId, "date", "amount", boundaries);
+    }
+
+    @Override
+    public List<Transaction> findByFilter(TransactionFilter filter) {
+        return mongoTemplate.find(Query.query(filterCriteria(filter)), Transaction.class);
+    }
+
+    @Override
+    public Document explainFilter(TransactionFilter filter) {
+        Document mappedQuery = new QueryMapper(mongoTemplate.getConverter()).getMappedObject(
+                Query.query(filterCriteria(filter)).getQueryObject(),
+                mongoTemplate.getConverter().getMappingContext().getPersistentEntity(Transaction.class)
+        );
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Transaction.class))
+                .find(mappedQuery)
+                .explain();
+    }
+
+    @Override
+    public List<Transaction> findPage(TransactionFilter filter, TransactionCursor after, int limit) {
+        Query query = Query.query(pageCriteria(filter, after)).with(NEWEST_FIRST).limit(limit);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    @Override
+    public Stream<Transaction> streamByFilter(TransactionFilter filter) {
+        Query query = Query.query(filterCriteria(filter)).with(NEWEST_FIRST);
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+
+    @Override
+    public Optional<Transaction> updateReturningPrevious(String userId, String id, Transaction changes,
+                                                         LocalDateTime updatedAt) {
+        Update update = new Update().set("updatedAt", updatedAt);
+        if (changes.getAmount() != null) {
+            update.set("amount", changes.getAmount());
+        }
+        if (changes.getCategory() != null) {
+            update.set("category", changes.getCategory());
+        }
+        if (changes.getDivision() != null) {
+            update.set("division", changes.getDivision());
+        }
+        if (changes.getDescription() != null) {
+            update.set("description", changes.getDescription());
+        }
+        if (changes.getDate() != null) {
+            update.set("date", changes.getDate());
+        }
+        if (changes.getType() != null) {
+            update.set("type", changes.getType());
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(byIdAndUser(userId, id), update,
+                FindAndModifyOptions.options().returnNew(false), Transaction.class));
+    }
+
+    @Override
+    public Optional<Transaction> removeReturningPrevious(String userId, String id) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(byIdAndUser(userId, id), Transaction.class));
+    }
+
+    // userId carries the shard key, so single-document writes target one shard
+    private static Query byIdAndUser(String userId, String id) {
+        return Query.query(Criteria.where("id").is(id).and("userId").is(userId));
+    }
+
+    // Rows strictly after the cursor in NEWEST_FIRST order
+    static Criteria pageCriteria(TransactionFilter filter, TransactionCursor after) {
+        Criteria criteria = filterCriteria(filter);
+        if (after != null) {
+            criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                    Criteria.where("date").lt(after.getDate()),
+                    Criteria.where("date").is(after.getDate()).and("id").lt(after.getId())
+            ));
+        }
+        return criteria;
+    }
+
+    static Criteria filterCriteria(TransactionFilter filter) {
+        // userId first: it is the shard key and leads every transactions index
+        Criteria criteria = Criteria.where("userId").is(filter.getUserId());
+        if (filter.getStartDate() != null && filter.getEndDate() != null) {
+            criteria.and("date").gte(filter.getStartDate()).lte(filter.getEndDate());
+        } else if (filter.getStartDate() != null) {
+            criteria.and("date").gte(filter.getStartDate());
+        } else if (filter.getEndDate() != null) {
+            criteria.and("date").lte(filter.getEndDate());
+        }
+        if (filter.getType() != null) {
+            criteria.and("type").is(filter.getType());
+        }
+        if (filter.getDivision() != null) {
+            criteria.and("division").is(filter.getDivision());
+        }
+        if (filter.getCategory() != null) {
+            criteria.and("category").is(filter.getCategory());
+        }
+        return criteria;
+    }
+}
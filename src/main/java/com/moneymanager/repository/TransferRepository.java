@@ -6,13 +6,18 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TransferRepository extends MongoRepository<Transfer, String> {
+public interface TransferRepository extends MongoRepository<Transfer, String>, TransferRepositoryCustom {
     
-    List<Transfer> findByDateBetween(LocalDateTime startDate, LocalDateTime endDate);
+    List<Transfer> findByUserId(String userId);
     
-    List<Transfer> findByFromAccountId(String fromAccountId);
+    Optional<Transfer> findByIdAndUserId(String id, String userId);
     
-    List<Transfer> findByToAccountId(String toAccountId);
+    List<Transfer> findByUserIdAndDateBetween(String userId, LocalDateTime startDate, LocalDateTime endDate);
+    
+    List<Transfer> findByUserIdAndFromAccountId(String userId, String fromAccountId);
+    
+    List<Transfer> findByUserIdAndToAccountId(String userId, String toAccountId);
 }
@@ -0,0 +1,29 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransferFlowDTO;
+import com.moneymanager.model.Transfer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface TransferRepositoryCustom {
+
+    // The user's transfers newest first, read lazily from a cursor; either bound may be null and
+    // both are inclusive. The caller must close the stream.
+    Stream<Transfer> streamByDateRange(String userId, LocalDateTime startDate, LocalDateTime endDate);
+
+    // Up to limit transfers strictly after the cursor (null for the first page), newest first.
+    // accountId (either side of the transfer) and the inclusive date bounds are optional.
+    List<Transfer> findPage(String userId, String accountId, LocalDateTime startDate, LocalDateTime endDate,
+                            TransactionCursor after, int limit);
+
+    // Amounts leaving / entering each account per calendar month within the inclusive range,
+    // optionally for one account only
+    List<TransferFlowDTO> sumOutflowsByMonth(String userId, String accountId,
+                                             LocalDateTime startDate, LocalDateTime endDate);
+
+    List<TransferFlowDTO> sumInflowsByMonth(String userId, String accountId,
+                                            LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -0,0 +1,107 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransferFlowDTO;
+import com.moneymanager.model.Transfer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class TransferRepositoryCustomImpl implements TransferRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Stream<Transfer> streamByDateRange(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        Query query = Query.query(dateCriteria(userId, startDate, endDate)).with(Sort.by(Sort.Direction.DESC, "date"));
+        return mongoTemplate.stream(query, Transfer.class);
+    }
+
+    @Override
+    public List<Transfer> findPage(String userId, String accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                   TransactionCursor after, int limit) {
+        Query query = Query.query(pageCriteria(userId, accountId, startDate, endDate, after))
+                .with(TransactionRepositoryCustomImpl.NEWEST_FIRST)
+                .limit(limit);
+        return mongoTemplate.find(query, Transfer.class);
+    }
+
+    @Override
+    public List<TransferFlowDTO> sumOutflowsByMonth(String userId, String accountId,
+                                                    LocalDateTime startDate, LocalDateTime endDate) {
+        return sumByMonth(userId, "fromAccountId", accountId, startDate, endDate);
+    }
+
+    @Override
+    public List<TransferFlowDTO> sumInflowsByMonth(String userId, String accountId,
+                                                   LocalDateTime startDate, LocalDateTime endDate) {
+        return sumByMonth(userId, "toAccountId", accountId, startDate, endDate);
+    }
+
+    // Groups one side of the user's transfers by account and month. With an account the match is
+    // equalities plus a date range on (userId, fromAccountId|toAccountId, date), so it reads one index range.
+    private List<TransferFlowDTO> sumByMonth(String userId, String accountField, String accountId,
+                                             LocalDateTime startDate, LocalDateTime endDate) {
+        Criteria criteria = accountId != null
+                ? Criteria.where("userId").is(userId).and(accountField).is(accountId)
+                        .and("date").gte(startDate).lte(endDate)
+                : Criteria.where("userId").is(userId).and("date").gte(startDate).lte(endDate);
+
+        // Months are cut in the zone LocalDateTime values are stored in, like the dashboard buckets
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.project("amount")
+                        .and(accountField).as("accountId")
+                        .and(DateOperators.dateOf("date")
+                                .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId()))
+                                .toString("%Y-%m"))
+                        .as("month"),
+                Aggregation.group("accountId", "month").sum("amount").as("amount").count().as("count"),
+                Aggregation.project("accountId", "month", "amount", "count").andExclude("_id")
+        );
+        return mongoTemplate.aggregate(aggregation, Transfer.class, TransferFlowDTO.class).getMappedResults();
+    }
+
+    // Rows strictly after the cursor in (date desc, id desc) order
+    static Criteria pageCriteria(String userId, String accountId, LocalDateTime startDate, LocalDateTime endDate,
+                                 TransactionCursor after) {
+        List<Criteria> parts = new ArrayList<>();
+        parts.add(dateCriteria(userId, startDate, endDate));
+        if (accountId != null) {
+            parts.add(new Criteria().orOperator(
+                    Criteria.where("fromAccountId").is(accountId),
+                    Criteria.where("toAccountId").is(accountId)
+            ));
+        }
+        if (after != null) {
+            parts.add(new Criteria().orOperator(
+                    Criteria.where("date").lt(after.getDate()),
+                    Criteria.where("date").is(after.getDate()).and("id").lt(after.getId())
+            ));
+        }
+        return parts.size() == 1 ? parts.get(0) : new Criteria().andOperator(parts);
+    }
+
+    private static Criteria dateCriteria(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (startDate != null && endDate != null) {
+            criteria.and("date").gte(startDate).lte(endDate);
+        } else if (startDate != null) {
+            criteria.and("date").gte(startDate);
+        } else if (endDate != null) {
+            criteria.and("date").lte(endDate);
+        }
+        return criteria;
+    }
+}
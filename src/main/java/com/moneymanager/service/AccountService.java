@@ -1,97 +1,211 @@
 package com.moneymanager.service;
 
+import com.moneymanager.config.CacheConfig;
+import com.moneymanager.dto.BalancePointDTO;
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransferPageDTO;
+import com.moneymanager.exception.BadRequestException;
 import com.moneymanager.exception.InsufficientBalanceException;
 import com.moneymanager.exception.ResourceNotFoundException;
 import com.moneymanager.model.Account;
+import com.moneymanager.model.LedgerEntry;
 import com.moneymanager.model.Transfer;
 import com.moneymanager.repository.AccountRepository;
 import com.moneymanager.repository.TransferRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "moneymanager.service", histogram = true)
 public class AccountService {
     
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    
     private final AccountRepository accountRepository;
     private final TransferRepository transferRepository;
+    private final CacheManager cacheManager;
+    private final LedgerService ledgerService;
+    private final WriteVersionService writeVersionService;
     
-    public Account createAccount(Account account) {
+    // Account cache entries are keyed by owner and id, so a by-id read never returns another user's account
+    @Caching(
+        put = @CachePut(value = CacheConfig.ACCOUNTS, key = "#userId + '|' + #result.id"),
+        evict = @CacheEvict(value = CacheConfig.ACCOUNT_LIST, key = "#userId")
+    )
+    public Account createAccount(String userId, Account account) {
+        // A version from the request body would make save() an update of an existing document
+        account.setId(null);
+        account.setVersion(null);
+        account.setUserId(userId);
         if (account.getBalance() == null) {
-            account.setBalance(0.0);
+            account.setBalance(0L);
         }
-        return accountRepository.save(account);
+        Account saved = accountRepository.save(account);
+        ledgerService.record(saved, saved.getBalance(), LedgerEntry.EntryType.OPENING, null);
+        writeVersionService.bump(WriteVersionService.Collection.ACCOUNTS, userId);
+        return saved;
     }
     
-    public List<Account> getAllAccounts() {
-        return accountRepository.findAll();
+    @Cacheable(value = CacheConfig.ACCOUNT_LIST, key = "#userId")
+    public List<Account> getAllAccounts(String userId) {
+        return accountRepository.findByUserId(userId);
     }
     
-    public Account getAccountById(String id) {
-        return accountRepository.findById(id)
+    @Cacheable(value = CacheConfig.ACCOUNTS, key = "#userId + '|' + #id")
+    public Account getAccountById(String userId, String id) {
+        return accountRepository.findByIdAndUserId(id, userId)
             .orElseThrow(() -> new ResourceNotFoundException("Account not found with id: " + id));
     }
     
-    public Account updateAccount(String id, Account accountDetails) {
-        Account account = getAccountById(id);
-        
-        if (accountDetails.getAccountName() != null) {
-            account.setAccountName(accountDetails.getAccountName());
-        }
-        if (accountDetails.getBalance() != null) {
-            account.setBalance(accountDetails.getBalance());
+    @Caching(
+        put = @CachePut(value = CacheConfig.ACCOUNTS, key = "#userId + '|' + #id"),
+        evict = @CacheEvict(value = CacheConfig.ACCOUNT_LIST, key = "#userId")
+    )
+    public Account updateAccount(String userId, String id, Account accountDetails) {
+        // Optimistic read-modify-write: a concurrent transfer or edit bumps the version and we retry
+        for (int attempt = 1; ; attempt++) {
+            Account account = getAccountById(userId, id);
+            long previousBalance = account.getBalance();
+            
+            if (accountDetails.getAccountName() != null) {
+                account.setAccountName(accountDetails.getAccountName());
+            }
+            if (accountDetails.getBalance() != null) {
+                account.setBalance(accountDetails.getBalance());
+            }
+            
+            try {
+                Account saved = accountRepository.save(account);
+                if (saved.getBalance() != previousBalance) {
+                    ledgerService.record(saved, saved.getBalance() - previousBalance,
+                        LedgerEntry.EntryType.ADJUSTMENT, null);
+                }
+                writeVersionService.bump(WriteVersionService.Collection.ACCOUNTS, userId);
+                return saved;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+            }
         }
-        
-        return accountRepository.save(account);
     }
     
-    public void deleteAccount(String id) {
-        Account account = getAccountById(id);
+    @Caching(evict = {
+        @CacheEvict(value = CacheConfig.ACCOUNTS, key = "#userId + '|' + #id"),
+        @CacheEvict(value = CacheConfig.ACCOUNT_LIST, key = "#userId")
+    })
+    public void deleteAccount(String userId, String id) {
+        Account account = getAccountById(userId, id);
         accountRepository.delete(account);
+        writeVersionService.bump(WriteVersionService.Collection.ACCOUNTS, userId);
     }
     
-    @Transactional
-    public Transfer createTransfer(Transfer transfer) {
-        // Validate accounts exist
-        Account fromAccount = getAccountById(transfer.getFromAccountId());
-        Account toAccount = getAccountById(transfer.getToAccountId());
+    // No Mongo transaction manager is configured, so instead of read-check-save the transfer
+    // runs as two atomic findAndModify updates: a guarded debit, then the credit
+    @CacheEvict(value = CacheConfig.ACCOUNT_LIST, key = "#userId")
+    public Transfer createTransfer(String userId, Transfer transfer) {
+        if (transfer.getAmount() == null || transfer.getAmount() <= 0) {
+            throw new BadRequestException("Transfer amount must be greater than zero");
+        }
+        
+        // Validate both accounts exist and belong to the user
+        Account fromAccount = getAccountById(userId, transfer.getFromAccountId());
+        getAccountById(userId, transfer.getToAccountId());
         
-        // Check sufficient balance
-        if (fromAccount.getBalance() < transfer.getAmount()) {
+        // Debit only if the balance covers the amount at the moment of the update
+        Account debited = accountRepository.debit(userId, fromAccount.getId(), transfer.getAmount());
+        if (debited == null) {
             throw new InsufficientBalanceException(
                 "Insufficient balance in account: " + fromAccount.getAccountName()
             );
         }
         
-        // Perform transfer
-        fromAccount.setBalance(fromAccount.getBalance() - transfer.getAmount());
-        toAccount.setBalance(toAccount.getBalance() + transfer.getAmount());
+        Account credited = accountRepository.credit(userId, transfer.getToAccountId(), transfer.getAmount());
+        if (credited == null) {
+            // Destination was deleted after validation: put the money back
+            cacheAccount(accountRepository.credit(userId, fromAccount.getId(), transfer.getAmount()));
+            writeVersionService.bump(WriteVersionService.Collection.ACCOUNTS, userId);
+            throw new ResourceNotFoundException("Account not found with id: " + transfer.getToAccountId());
+        }
         
-        // Save updated accounts
-        accountRepository.save(fromAccount);
-        accountRepository.save(toAccount);
+        // Write the updated accounts through to the cache
+        cacheAccount(debited);
+        cacheAccount(credited);
+        writeVersionService.bump(WriteVersionService.Collection.ACCOUNTS, userId);
         
         // Save transfer record
+        transfer.setId(null);
+        transfer.setUserId(userId);
         if (transfer.getDate() == null) {
             transfer.setDate(LocalDateTime.now());
         }
-        return transferRepository.save(transfer);
+        Transfer saved = transferRepository.save(transfer);
+        
+        // debited/credited are the states the two updates produced, so they carry each entry's seq
+        ledgerService.record(debited, -transfer.getAmount(), LedgerEntry.EntryType.TRANSFER_OUT, saved.getId());
+        ledgerService.record(credited, transfer.getAmount(), LedgerEntry.EntryType.TRANSFER_IN, saved.getId());
+        return saved;
     }
     
-    public List<Transfer> getAllTransfers() {
-        return transferRepository.findAll();
+    public List<Transfer> getAllTransfers(String userId) {
+        return transferRepository.findByUserId(userId);
     }
     
-    public List<Transfer> getTransfersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return transferRepository.findByDateBetween(startDate, endDate);
+    public List<Transfer> getTransfersByDateRange(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return transferRepository.findByUserIdAndDateBetween(userId, startDate, endDate);
     }
     
-    public Transfer getTransferById(String id) {
-        return transferRepository.findById(id)
+    public TransferPageDTO getTransferPage(String userId, String accountId, LocalDateTime startDate,
+                                           LocalDateTime endDate, TransactionCursor after, int limit) {
+        // One extra row tells whether another page exists
+        List<Transfer> transfers = transferRepository.findPage(userId, accountId, startDate, endDate, after, limit + 1);
+        
+        String nextCursor = null;
+        if (transfers.size() > limit) {
+            transfers = transfers.subList(0, limit);
+            nextCursor = TransactionCursor.after(transfers.get(limit - 1)).encode();
+        }
+        return new TransferPageDTO(transfers, nextCursor);
+    }
+    
+    // For exports: the caller must close the stream
+    public Stream<Transfer> streamTransfers(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return transferRepository.streamByDateRange(userId, startDate, endDate);
+    }
+    
+    public BalancePointDTO getBalanceAsOf(String userId, String id, LocalDateTime date) {
+        getAccountById(userId, id);
+        return ledgerService.getBalanceAsOf(userId, id, date);
+    }
+    
+    public List<BalancePointDTO> getBalanceHistory(String userId, String id, LocalDateTime startDate,
+                                                   LocalDateTime endDate, String period) {
+        getAccountById(userId, id);
+        return ledgerService.getBalanceHistory(userId, id, startDate, endDate, period);
+    }
+    
+    public Transfer getTransferById(String userId, String id) {
+        return transferRepository.findByIdAndUserId(id, userId)
             .orElseThrow(() -> new ResourceNotFoundException("Transfer not found with id: " + id));
     }
+    
+    private void cacheAccount(Account account) {
+        Cache cache = cacheManager.getCache(CacheConfig.ACCOUNTS);
+        if (cache != null && account != null) {
+            cache.put(account.getUserId() + "|" + account.getId(), account);
+        }
+    }
 }
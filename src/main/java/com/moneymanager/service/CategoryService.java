@@ -1,8 +1,11 @@
 package com.moneymanager.service;
 
+import com.moneymanager.config.CacheConfig;
 import com.moneymanager.model.Category;
 import com.moneymanager.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -13,37 +16,43 @@ public class CategoryService {
     
     private final CategoryRepository categoryRepository;
     
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    @Cacheable(value = CacheConfig.CATEGORIES, key = "#userId")
+    public List<Category> getAllCategories(String userId) {
+        return categoryRepository.findByUserId(userId);
     }
     
-    public Category createCategory(Category category) {
+    @CacheEvict(value = CacheConfig.CATEGORIES, key = "#userId")
+    public Category createCategory(String userId, Category category) {
+        category.setId(null);
+        category.setUserId(userId);
         return categoryRepository.save(category);
     }
     
-    public void initializeDefaultCategories() {
-        if (categoryRepository.count() == 0) {
+    // Each user gets their own copy of the defaults, the first time they ask for them
+    @CacheEvict(value = CacheConfig.CATEGORIES, key = "#userId")
+    public void initializeDefaultCategories(String userId) {
+        if (!categoryRepository.existsByUserId(userId)) {
             List<Category> defaultCategories = List.of(
                 // Income categories
-                new Category(null, "salary", Category.CategoryType.INCOME, "💰"),
-                new Category(null, "freelance", Category.CategoryType.INCOME, "💼"),
-                new Category(null, "investment", Category.CategoryType.INCOME, "📈"),
-                new Category(null, "gift", Category.CategoryType.INCOME, "🎁"),
-                new Category(null, "other-income", Category.CategoryType.INCOME, "💵"),
+                new Category(null, userId, "salary", Category.CategoryType.INCOME, "💰"),
+                new Category(null, userId, "freelance", Category.CategoryType.INCOME, "💼"),
+                new Category(null, userId, "investment", Category.CategoryType.INCOME, "📈"),
+                new Category(null, userId, "gift", Category.CategoryType.INCOME, "🎁"),
+                new Category(null, userId, "other-income", Category.CategoryType.INCOME, "💵"),
                 
                 // Expense categories
-                new Category(null, "fuel", Category.CategoryType.BOTH, "⛽"),
-                new Category(null, "food", Category.CategoryType.EXPENSE, "🍔"),
-                new Category(null, "movie", Category.CategoryType.EXPENSE, "🎬"),
-                new Category(null, "medical", Category.CategoryType.EXPENSE, "🏥"),
-                new Category(null, "loan", Category.CategoryType.EXPENSE, "🏦"),
-                new Category(null, "rent", Category.CategoryType.EXPENSE, "🏠"),
-                new Category(null, "utilities", Category.CategoryType.EXPENSE, "💡"),
-                new Category(null, "shopping", Category.CategoryType.EXPENSE, "🛍️"),
-                new Category(null, "transportation", Category.CategoryType.EXPENSE, "🚗"),
-                new Category(null, "entertainment", Category.CategoryType.EXPENSE, "🎮"),
-                new Category(null, "education", Category.CategoryType.EXPENSE, "📚"),
-                new Category(null, "other-expense", Category.CategoryType.EXPENSE, "💳")
+                new Category(null, userId, "fuel", Category.CategoryType.BOTH, "⛽"),
+                new Category(null, userId, "food", Category.CategoryType.EXPENSE, "🍔"),
+                new Category(null, userId, "movie", Category.CategoryType.EXPENSE, "🎬"),
+                new Category(null, userId, "medical", Category.CategoryType.EXPENSE, "🏥"),
+                new Category(null, userId, "loan", Category.CategoryType.EXPENSE, "🏦"),
+                new Category(null, userId, "rent", Category.CategoryType.EXPENSE, "🏠"),
+                new Category(null, userId, "utilities", Category.CategoryType.EXPENSE, "💡"),
+                new Category(null, userId, "shopping", Category.CategoryType.EXPENSE, "🛍️"),
+                new Category(null, userId, "transportation", Category.CategoryType.EXPENSE, "🚗"),
+                new Category(null, userId, "entertainment", Category.CategoryType.EXPENSE, "🎮"),
+                new Category(null, userId, "education", Category.CategoryType.EXPENSE, "📚"),
+                new Category(null, userId, "other-expense", Category.CategoryType.EXPENSE, "💳")
             );
             
             categoryRepository.saveAll(defaultCategories);
@@ -0,0 +1,200 @@
+package com.moneymanager.service;
+
+import com.moneymanager.exception.BadRequestException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// CSV statements with a header row. date and amount columns are required; description, type,
+// category, division and reference are optional. Quoted fields may contain commas and newlines.
+class CsvStatementParser implements StatementParser {
+
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final DateTimeFormatter dateFormat;
+
+    CsvStatementParser(DateTimeFormatter dateFormat) {
+        this.dateFormat = dateFormat;
+    }
+
+    @Override
+    public void parse(Reader reader, RowSink sink) throws IOException, InterruptedException {
+        RecordReader records = new RecordReader(reader);
+        List<String> header = records.next();
+        if (header == null) {
+            return;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = i == 0 ? stripByteOrderMark(header.get(i)) : header.get(i);
+            columns.put(name.trim().toLowerCase(), i);
+        }
+        if (!columns.containsKey("date") || !columns.containsKey("amount")) {
+            throw new BadRequestException("CSV header must include date and amount columns");
+        }
+
+        long row = 0;
+        while (true) {
+            StatementRow line = new StatementRow();
+            line.setRow(row + 1);
+
+            List<String> record;
+            try {
+                record = records.next();
+            } catch (RecordTooLongException e) {
+                row++;
+                line.setError(e.getMessage());
+                sink.accept(line);
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+            row++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+
+            try {
+                line.setDate(parseDate(field(record, columns, "date")));
+                line.setAmount(parseAmount(field(record, columns, "amount")));
+                line.setDescription(field(record, columns, "description"));
+                line.setType(field(record, columns, "type"));
+                line.setCategory(field(record, columns, "category"));
+                line.setDivision(field(record, columns, "division"));
+                line.setReference(field(record, columns, "reference"));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                line.setError(e.getMessage());
+            }
+            sink.accept(line);
+        }
+    }
+
+    private LocalDateTime parseDate(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("date is required");
+        }
+        if (value.indexOf('T') > 0) {
+            return LocalDateTime.parse(value);
+        }
+        return LocalDate.parse(value, dateFormat).atStartOfDay();
+    }
+
+    private static BigDecimal parseAmount(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("amount is required");
+        }
+        try {
+            return new BigDecimal(value.replace(",", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("amount is not a number: " + value);
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String stripByteOrderMark(String value) {
+        return value.startsWith("\uFEFF") ? value.substring(1) : value;
+    }
+
+    private static class RecordTooLongException extends RuntimeException {
+        RecordTooLongException() {
+            super("record is longer than " + MAX_RECORD_LENGTH + " characters");
+        }
+    }
+
+    // RFC 4180 records, one at a time; a record longer than MAX_RECORD_LENGTH (usually an
+    // unbalanced quote) is an error rather than an unbounded buffer
+    private static class RecordReader {
+        private final Reader reader;
+        private int pending = -2;
+
+        RecordReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int length = 0;
+
+            while (c != -1) {
+                if (++length > MAX_RECORD_LENGTH) {
+                    skipLine();
+                    throw new RecordTooLongException();
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            pending = next;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pending = next;
+                    }
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private void skipLine() throws IOException {
+            int c;
+            while ((c = read()) != -1 && c != '\n') {
+                // discard the rest of the oversized record
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.moneymanager.service;
+
+import com.moneymanager.model.Money;
+import com.moneymanager.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Single-pass accumulator for dashboard totals. Sums are exact minor-unit longs in one flat
+// long[] indexed by category id x division ordinal x type ordinal, so adding a row is an array
+// increment with no boxing or per-row allocation once a category has been seen.
+// Not thread-safe; use one per request.
+public final class DashboardAccumulator {
+    
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+    private static final Transaction.Division[] DIVISIONS = Transaction.Division.values();
+    
+    // One extra division slot for rows without a division
+    private static final int DIVISION_SLOTS = DIVISIONS.length + 1;
+    private static final int CATEGORY_STRIDE = DIVISION_SLOTS * TYPES.length;
+    
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    private final List<String> categories = new ArrayList<>();
+    private long[] sums;
+    private long[] counts;
+    
+    public DashboardAccumulator() {
+        this(16);
+    }
+    
+    public DashboardAccumulator(int expectedCategories) {
+        sums = new long[Math.max(1, expectedCategories) * CATEGORY_STRIDE];
+        counts = new long[sums.length];
+    }
+    
+    public void add(Transaction.TransactionType type, Transaction.Division division, String category,
+                    long amount, long count) {
+        if (type == null) {
+            return;
+        }
+        int slot = slot(categoryId(category), division, type);
+        sums[slot] = Money.add(sums[slot], amount);
+        counts[slot] += count;
+    }
+    
+    public long total(Transaction.TransactionType type) {
+        long total = 0;
+        for (int c = 0; c < categories.size(); c++) {
+            for (int d = 0; d < DIVISION_SLOTS; d++) {
+                total = Money.add(total, sums[(c * DIVISION_SLOTS + d) * TYPES.length + type.ordinal()]);
+            }
+        }
+        return total;
+    }
+    
+    public long total(Transaction.Division division, Transaction.TransactionType type) {
+        long total = 0;
+        for (int c = 0; c < categories.size(); c++) {
+            total = Money.add(total, sums[slot(c, division, type)]);
+        }
+        return total;
+    }
+    
+    // Category totals for one type, in first-seen order; only categories with at least one row are included
+    public Map<String, Long> totalsByCategory(Transaction.TransactionType type) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (int c = 0; c < categories.size(); c++) {
+            long sum = 0;
+            long count = 0;
+            for (int d = 0; d < DIVISION_SLOTS; d++) {
+                int slot = (c * DIVISION_SLOTS + d) * TYPES.length + type.ordinal();
+                sum = Money.add(sum, sums[slot]);
+                count += counts[slot];
+            }
+            if (count > 0) {
+                totals.put(categories.get(c), sum);
+            }
+        }
+        return totals;
+    }
+    
+    private static int slot(int categoryId, Transaction.Division division, Transaction.TransactionType type) {
+        int divisionSlot = division == null ? DIVISIONS.length : division.ordinal();
+        return (categoryId * DIVISION_SLOTS + divisionSlot) * TYPES.length + type.ordinal();
+    }
+    
+    private int categoryId(String category) {
+        Integer id = categoryIds.get(category);
+        if (id != null) {
+            return id;
+        }
+        
+        id = categories.size();
+        categories.add(category);
+        categoryIds.put(category, id);
+        if ((id + 1) * CATEGORY_STRIDE > sums.length) {
+            sums = Arrays.copyOf(sums, sums.length * 2);
+            counts = Arrays.copyOf(counts, sums.length);
+        }
+        return id;
+    }
+}
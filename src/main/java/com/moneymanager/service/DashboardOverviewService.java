@@ -0,0 +1,71 @@
+package com.moneymanager.service;
+
+import com.moneymanager.dto.ChartDataDTO;
+import com.moneymanager.dto.DashboardOverviewDTO;
+import com.moneymanager.dto.DashboardSummaryDTO;
+import com.moneymanager.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Runs the independent dashboard queries side by side, so the overview takes as long as the
+// slowest of them instead of their sum
+@Service
+public class DashboardOverviewService {
+    
+    private final DashboardService dashboardService;
+    
+    // When the pool and its queue are full the query runs on the request thread instead of failing
+    private final ThreadPoolTaskExecutor executor;
+    
+    public DashboardOverviewService(DashboardService dashboardService,
+                                    @Value("${dashboard.overview.threads:16}") int threads,
+                                    @Value("${dashboard.overview.queue-capacity:256}") int queueCapacity) {
+        this.dashboardService = dashboardService;
+        
+        this.executor = ServiceExecutors.fixed("dashboard-", threads, pool -> {
+            pool.setQueueCapacity(queueCapacity);
+            pool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+            // Count the queries against the calling request's budget
+            pool.setTaskDecorator(QueryBudgetService::propagate);
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+    
+    public DashboardOverviewDTO getOverview(String userId, String period, LocalDateTime date, int year,
+                                            LocalDateTime startDate, LocalDateTime endDate) {
+        CompletableFuture<DashboardSummaryDTO> summary = CompletableFuture.supplyAsync(
+            () -> dashboardService.getDashboardSummary(userId, period, date), executor);
+        CompletableFuture<ChartDataDTO> chart = CompletableFuture.supplyAsync(
+            () -> dashboardService.getChartData(userId, period, year), executor);
+        // Both category summaries and the division summary come from one read of the window
+        CompletableFuture<DashboardAccumulator> window = CompletableFuture.supplyAsync(
+            () -> dashboardService.getWindowTotals(userId, startDate, endDate), executor);
+        
+        try {
+            CompletableFuture.allOf(summary, chart, window).join();
+        } catch (CompletionException e) {
+            // Surface the query's own exception so the usual handlers map it
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        
+        DashboardAccumulator totals = window.join();
+        return new DashboardOverviewDTO(summary.join(), chart.join(),
+            DashboardService.categorySummaryOf(totals, Transaction.TransactionType.INCOME),
+            DashboardService.categorySummaryOf(totals, Transaction.TransactionType.EXPENSE),
+            DashboardService.divisionSummaryOf(totals), startDate, endDate);
+    }
+}
@@ -1,15 +1,25 @@
 package com.moneymanager.service;
 
 import com.moneymanager.dto.CategorySummaryDTO;
+import com.moneymanager.dto.ChartBucketDTO;
 import com.moneymanager.dto.ChartDataDTO;
 import com.moneymanager.dto.DashboardSummaryDTO;
 import com.moneymanager.dto.DivisionSummaryDTO;
+import com.moneymanager.dto.TransactionAmountDTO;
+import com.moneymanager.model.DailyRollup;
+import com.moneymanager.model.Money;
 import com.moneymanager.model.Transaction;
+import com.moneymanager.repository.DailyRollupRepository;
 import com.moneymanager.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.WeekFields;
@@ -18,167 +28,264 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "moneymanager.service", histogram = true)
 public class DashboardService {
     
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59, 59);
+    
     private final TransactionRepository transactionRepository;
+    private final DailyRollupRepository dailyRollupRepository;
+    private final HotWindowStore hotWindowStore;
+    private final SnapshotService snapshotService;
+    private final MeterRegistry meterRegistry;
     
-    public DashboardSummaryDTO getDashboardSummary(String period, LocalDateTime date) {
-        LocalDateTime startDate;
-        LocalDateTime endDate;
-        String periodLabel;
-        
-        switch (period.toUpperCase()) {
-            case "WEEKLY":
-                startDate = date.with(WeekFields.of(Locale.getDefault()).dayOfWeek(), 1).toLocalDate().atStartOfDay();
-                endDate = startDate.plusDays(7).minusSeconds(1);
-                periodLabel = "Week of " + startDate.format(DateTimeFormatter.ofPattern("MMM dd, yyyy"));
-                break;
-            case "YEARLY":
-                startDate = LocalDateTime.of(date.getYear(), 1, 1, 0, 0);
-                endDate = LocalDateTime.of(date.getYear(), 12, 31, 23, 59, 59);
-                periodLabel = String.valueOf(date.getYear());
-                break;
-            case "MONTHLY":
-            default:
-                YearMonth yearMonth = YearMonth.from(date);
-                startDate = yearMonth.atDay(1).atStartOfDay();
-                endDate = yearMonth.atEndOfMonth().atTime(23, 59, 59);
-                periodLabel = date.format(DateTimeFormatter.ofPattern("MMMM yyyy"));
-                break;
-        }
+    @Value("${dashboard.rollups.enabled:true}")
+    private boolean rollupsEnabled;
+    
+    public DashboardSummaryDTO getDashboardSummary(String userId, String period, LocalDateTime date) {
+        SummaryPeriod summaryPeriod = SummaryPeriod.of(period, date);
+        return summaryOf(accumulate("summary", userId, summaryPeriod.startDate, summaryPeriod.endDate, null),
+            period, summaryPeriod.label);
+    }
+    
+    public ChartDataDTO getChartData(String userId, String period, int year) {
+        ChartLayout layout = ChartLayout.of(period, year);
         
-        List<Transaction> transactions = transactionRepository.findByDateBetween(startDate, endDate);
+        // Closed months come from the snapshot files; Mongo is only asked for the months after them
+        List<ChartBucketDTO> bucketTotals = snapshotService.sumByTypeInBuckets(userId, layout.boundaries,
+            boundaries -> sumInBuckets(userId, boundaries));
+        return chartOf(layout, bucketTotals);
+    }
+    
+    // All buckets are summed server-side in one round trip; empty buckets are not returned
+    private List<ChartBucketDTO> sumInBuckets(String userId, List<LocalDateTime> boundaries) {
+        List<ChartBucketDTO> bucketTotals = rollupsEnabled
+            ? dailyRollupRepository.sumByTypeInBuckets(userId, boundaries)
+            : transactionRepository.sumByTypeInBuckets(userId, boundaries);
+        recordRowsFetched("chart", rollupsEnabled ? "rollups" : "transactions", bucketTotals.size());
+        return bucketTotals;
+    }
+    
+    public List<CategorySummaryDTO> getCategorySummary(
+            String userId,
+            LocalDateTime startDate, 
+            LocalDateTime endDate,
+            Transaction.TransactionType type) {
+        return categorySummaryOf(accumulate("category-summary", userId, startDate, endDate, type), type);
+    }
+    
+    public DivisionSummaryDTO getDivisionSummary(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return divisionSummaryOf(accumulate("division-summary", userId, startDate, endDate, null));
+    }
+    
+    // Every total of the window: the overview builds both category summaries and the division
+    // summary from this one accumulation
+    DashboardAccumulator getWindowTotals(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return accumulate("overview", userId, startDate, endDate, null);
+    }
+    
+    // The user's totals for the range in one pass, optionally limited to one type. Ranges that cover
+    // whole days are answered from the in-memory hot window when they fall inside it, otherwise from
+    // daily_rollups; anything else falls back to the raw transactions.
+    private DashboardAccumulator accumulate(String call, String userId, LocalDateTime startDate,
+                                            LocalDateTime endDate, Transaction.TransactionType type) {
+        DashboardAccumulator totals = new DashboardAccumulator();
         
-        double totalIncome = transactions.stream()
-            .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
-            .mapToDouble(Transaction::getAmount)
-            .sum();
+        if (coversWholeDays(startDate, endDate)) {
+            int rows = hotWindowStore.accumulate(userId, startDate.toLocalDate(), endDate.toLocalDate(), type, totals);
+            if (rows >= 0) {
+                recordRowsFetched(call, "hot-window", rows);
+                return totals;
+            }
+        }
         
-        double totalExpense = transactions.stream()
-            .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-            .mapToDouble(Transaction::getAmount)
-            .sum();
+        if (rollupsEnabled && coversWholeDays(startDate, endDate)) {
+            List<DailyRollup> rollups = type == null
+                ? dailyRollupRepository.findByDayRange(userId, startDate.toLocalDate(), endDate.toLocalDate())
+                : dailyRollupRepository.findByDayRangeAndType(userId, startDate.toLocalDate(), endDate.toLocalDate(), type);
+            for (DailyRollup r : rollups) {
+                totals.add(r.getType(), r.getDivision(), r.getCategory(), r.getSum(), r.getCount());
+            }
+            recordRowsFetched(call, "rollups", rollups.size());
+            return totals;
+        }
+        
+        List<TransactionAmountDTO> transactions = type == null
+            ? transactionRepository.findAmountsByUserIdAndDateBetween(userId, startDate, endDate)
+            : transactionRepository.findAmountsByUserIdAndDateBetweenAndType(userId, startDate, endDate, type);
+        for (TransactionAmountDTO t : transactions) {
+            if (t.getAmount() != null) {
+                totals.add(t.getType(), t.getDivision(), t.getCategory(), t.getAmount(), 1);
+            }
+        }
+        recordRowsFetched(call, "transactions", transactions.size());
+        return totals;
+    }
+    
+    // Rows each dashboard call read, from Mongo or the hot window; a "transactions" source with a
+    // wide distribution points at calls scanning raw transactions instead of rollups
+    private void recordRowsFetched(String call, String source, int rows) {
+        DistributionSummary.builder("dashboard.rows.fetched")
+            .description("Rows read per dashboard call, by source")
+            .tag("call", call)
+            .tag("source", source)
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(rows);
+    }
+    
+    // The steps below are shared with ReactiveDashboardService, which gathers the same totals reactively
+    
+    static boolean coversWholeDays(LocalDateTime startDate, LocalDateTime endDate) {
+        return startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+            && !endDate.toLocalTime().isBefore(END_OF_DAY);
+    }
+    
+    static DashboardSummaryDTO summaryOf(DashboardAccumulator totals, String period, String periodLabel) {
+        long totalIncome = totals.total(Transaction.TransactionType.INCOME);
+        long totalExpense = totals.total(Transaction.TransactionType.EXPENSE);
         
         return new DashboardSummaryDTO(
-            totalIncome,
-            totalExpense,
-            totalIncome - totalExpense,
+            Money.toMajor(totalIncome),
+            Money.toMajor(totalExpense),
+            Money.toMajor(Money.subtract(totalIncome, totalExpense)),
             period,
             periodLabel
         );
     }
     
-    public ChartDataDTO getChartData(String period, int year) {
-        List<String> labels = new ArrayList<>();
-        List<Double> incomeData = new ArrayList<>();
-        List<Double> expenseData = new ArrayList<>();
-        
-        switch (period.toUpperCase()) {
-            case "WEEKLY":
-                // Get data for each week of the year
-                for (int week = 1; week <= 52; week++) {
-                    labels.add("Week " + week);
-                    LocalDateTime weekStart = LocalDateTime.of(year, 1, 1, 0, 0)
-                        .with(WeekFields.of(Locale.getDefault()).weekOfYear(), week);
-                    LocalDateTime weekEnd = weekStart.plusDays(7);
-                    
-                    Map<Transaction.TransactionType, Double> weekData = getTransactionSumByType(weekStart, weekEnd);
-                    incomeData.add(weekData.getOrDefault(Transaction.TransactionType.INCOME, 0.0));
-                    expenseData.add(weekData.getOrDefault(Transaction.TransactionType.EXPENSE, 0.0));
-                }
-                break;
-                
-            case "YEARLY":
-                // Get data for last 5 years
-                for (int y = year - 4; y <= year; y++) {
-                    labels.add(String.valueOf(y));
-                    LocalDateTime yearStart = LocalDateTime.of(y, 1, 1, 0, 0);
-                    LocalDateTime yearEnd = LocalDateTime.of(y, 12, 31, 23, 59, 59);
-                    
-                    Map<Transaction.TransactionType, Double> yearData = getTransactionSumByType(yearStart, yearEnd);
-                    incomeData.add(yearData.getOrDefault(Transaction.TransactionType.INCOME, 0.0));
-                    expenseData.add(yearData.getOrDefault(Transaction.TransactionType.EXPENSE, 0.0));
-                }
-                break;
-                
-            case "MONTHLY":
-            default:
-                // Get data for each month of the year
-                String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
-                for (int month = 1; month <= 12; month++) {
-                    labels.add(months[month - 1]);
-                    YearMonth yearMonth = YearMonth.of(year, month);
-                    LocalDateTime monthStart = yearMonth.atDay(1).atStartOfDay();
-                    LocalDateTime monthEnd = yearMonth.atEndOfMonth().atTime(23, 59, 59);
-                    
-                    Map<Transaction.TransactionType, Double> monthData = getTransactionSumByType(monthStart, monthEnd);
-                    incomeData.add(monthData.getOrDefault(Transaction.TransactionType.INCOME, 0.0));
-                    expenseData.add(monthData.getOrDefault(Transaction.TransactionType.EXPENSE, 0.0));
-                }
-                break;
+    static ChartDataDTO chartOf(ChartLayout layout, List<ChartBucketDTO> bucketTotals) {
+        Map<LocalDateTime, ChartBucketDTO> buckets = bucketTotals.stream()
+            .collect(Collectors.toMap(ChartBucketDTO::getBucketStart, b -> b));
+        
+        List<Double> incomeData = new ArrayList<>(layout.labels.size());
+        List<Double> expenseData = new ArrayList<>(layout.labels.size());
+        for (int i = 0; i < layout.labels.size(); i++) {
+            ChartBucketDTO bucket = buckets.get(layout.boundaries.get(i));
+            incomeData.add(bucket != null ? Money.toMajor(bucket.getIncome()) : 0.0);
+            expenseData.add(bucket != null ? Money.toMajor(bucket.getExpense()) : 0.0);
         }
         
-        return new ChartDataDTO(labels, incomeData, expenseData);
+        return new ChartDataDTO(layout.labels, incomeData, expenseData);
     }
     
-    public List<CategorySummaryDTO> getCategorySummary(
-            LocalDateTime startDate, 
-            LocalDateTime endDate,
-            Transaction.TransactionType type) {
-        
-        List<Transaction> transactions = transactionRepository.findByDateBetweenAndType(startDate, endDate, type);
-        
-        // Group by category and sum amounts
-        Map<String, Double> categoryTotals = transactions.stream()
-            .collect(Collectors.groupingBy(
-                Transaction::getCategory,
-                Collectors.summingDouble(Transaction::getAmount)
-            ));
+    static List<CategorySummaryDTO> categorySummaryOf(DashboardAccumulator totals, Transaction.TransactionType type) {
+        // Sum amounts per category
+        Map<String, Long> categoryTotals = totals.totalsByCategory(type);
         
-        double total = categoryTotals.values().stream().mapToDouble(Double::doubleValue).sum();
+        long total = categoryTotals.values().stream().mapToLong(Long::longValue).reduce(0L, Money::add);
         
         return categoryTotals.entrySet().stream()
             .map(entry -> new CategorySummaryDTO(
                 entry.getKey(),
-                entry.getValue(),
-                total > 0 ? (entry.getValue() / total) * 100 : 0.0
+                Money.toMajor(entry.getValue()),
+                total > 0 ? ((double) entry.getValue() / total) * 100 : 0.0
             ))
             .sorted((a, b) -> Double.compare(b.getAmount(), a.getAmount()))
             .collect(Collectors.toList());
     }
     
-    public DivisionSummaryDTO getDivisionSummary(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Transaction> transactions = transactionRepository.findByDateBetween(startDate, endDate);
-        
+    static DivisionSummaryDTO divisionSummaryOf(DashboardAccumulator totals) {
         Map<String, DivisionSummaryDTO.DivisionData> divisions = new HashMap<>();
         
         for (Transaction.Division division : Transaction.Division.values()) {
-            double income = transactions.stream()
-                .filter(t -> t.getDivision() == division && t.getType() == Transaction.TransactionType.INCOME)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
-            
-            double expense = transactions.stream()
-                .filter(t -> t.getDivision() == division && t.getType() == Transaction.TransactionType.EXPENSE)
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+            long income = totals.total(division, Transaction.TransactionType.INCOME);
+            long expense = totals.total(division, Transaction.TransactionType.EXPENSE);
             
-            divisions.put(division.name(), new DivisionSummaryDTO.DivisionData(income, expense, income - expense));
+            divisions.put(division.name(), new DivisionSummaryDTO.DivisionData(
+                Money.toMajor(income),
+                Money.toMajor(expense),
+                Money.toMajor(Money.subtract(income, expense))
+            ));
         }
         
         return new DivisionSummaryDTO(divisions);
     }
     
-    private Map<Transaction.TransactionType, Double> getTransactionSumByType(
-            LocalDateTime startDate, 
-            LocalDateTime endDate) {
+    // Date window and label of a summary period
+    static final class SummaryPeriod {
+        final LocalDateTime startDate;
+        final LocalDateTime endDate;
+        final String label;
+        
+        private SummaryPeriod(LocalDateTime startDate, LocalDateTime endDate, String label) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.label = label;
+        }
         
-        List<Transaction> transactions = transactionRepository.findByDateBetween(startDate, endDate);
+        static SummaryPeriod of(String period, LocalDateTime date) {
+            LocalDateTime startDate;
+            LocalDateTime endDate;
+            String periodLabel;
         
-        return transactions.stream()
-            .collect(Collectors.groupingBy(
-                Transaction::getType,
-                Collectors.summingDouble(Transaction::getAmount)
-            ));
+            switch (period.toUpperCase()) {
+                case "WEEKLY":
+                    startDate = date.with(WeekFields.of(Locale.getDefault()).dayOfWeek(), 1).toLocalDate().atStartOfDay();
+                    endDate = startDate.plusDays(7).minusSeconds(1);
+                    periodLabel = "Week of " + startDate.format(DateTimeFormatter.ofPattern("MMM dd, yyyy"));
+                    break;
+                case "YEARLY":
+                    startDate = LocalDateTime.of(date.getYear(), 1, 1, 0, 0);
+                    endDate = LocalDateTime.of(date.getYear(), 12, 31, 23, 59, 59);
+                    periodLabel = String.valueOf(date.getYear());
+                    break;
+                case "MONTHLY":
+                default:
+                    YearMonth yearMonth = YearMonth.from(date);
+                    startDate = yearMonth.atDay(1).atStartOfDay();
+                    endDate = yearMonth.atEndOfMonth().atTime(23, 59, 59);
+                    periodLabel = date.format(DateTimeFormatter.ofPattern("MMMM yyyy"));
+                    break;
+            }
+        
+            return new SummaryPeriod(startDate, endDate, periodLabel);
+        }
+    }
+    
+    // Chart labels and the bucket boundaries between them (one more boundary than labels)
+    static final class ChartLayout {
+        final List<String> labels = new ArrayList<>();
+        final List<LocalDateTime> boundaries = new ArrayList<>();
+        
+        static ChartLayout of(String period, int year) {
+            ChartLayout layout = new ChartLayout();
+            List<String> labels = layout.labels;
+            List<LocalDateTime> boundaries = layout.boundaries;
+        
+            switch (period.toUpperCase()) {
+                case "WEEKLY":
+                    // One bucket for each week of the year
+                    for (int week = 1; week <= 52; week++) {
+                        labels.add("Week " + week);
+                        boundaries.add(LocalDateTime.of(year, 1, 1, 0, 0)
+                            .with(WeekFields.of(Locale.getDefault()).weekOfYear(), week));
+                    }
+                    boundaries.add(boundaries.get(boundaries.size() - 1).plusDays(7));
+                    break;
+                
+                case "YEARLY":
+                    // One bucket for each of the last 5 years
+                    for (int y = year - 4; y <= year; y++) {
+                        labels.add(String.valueOf(y));
+                        boundaries.add(LocalDateTime.of(y, 1, 1, 0, 0));
+                    }
+                    boundaries.add(LocalDateTime.of(year + 1, 1, 1, 0, 0));
+                    break;
+                
+                case "MONTHLY":
+                default:
+                    // One bucket for each month of the year
+                    String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+                    for (int month = 1; month <= 12; month++) {
+                        labels.add(months[month - 1]);
+                        boundaries.add(YearMonth.of(year, month).atDay(1).atStartOfDay());
+                    }
+                    boundaries.add(LocalDateTime.of(year + 1, 1, 1, 0, 0));
+                    break;
+            }
+        
+            return layout;
+        }
     }
 }
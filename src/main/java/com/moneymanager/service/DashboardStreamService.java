@@ -0,0 +1,290 @@
+package com.moneymanager.service;
+
+import com.moneymanager.dto.DashboardSummaryDTO;
+import com.moneymanager.dto.DivisionSummaryDTO;
+import com.moneymanager.exception.ResourceNotFoundException;
+import com.moneymanager.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Pushes dashboard changes to clients subscribed over Server-Sent Events. A subscription starts with
+// the full summary and division summary of its windows; every transaction created, updated or deleted
+// through this instance is then pushed as a delta computed from the changed transaction alone, which
+// the client adds to what it holds. Imports push the full totals again instead. Writes made by another
+// instance would never be pushed, so streams are refused unless deployment.single-instance is set.
+@Service
+public class DashboardStreamService {
+    
+    public static final String SUMMARY = "summary";
+    public static final String DIVISION_SUMMARY = "division-summary";
+    public static final String SUMMARY_DELTA = "summary-delta";
+    public static final String DIVISION_SUMMARY_DELTA = "division-summary-delta";
+    public static final String ERROR = "error";
+    
+    private static final int LOCK_STRIPES = 64;
+    
+    private final DashboardService dashboardService;
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private final int maxPendingEvents;
+    
+    private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    
+    // Transaction writes of a user hold the read side of the user's stripe from before the write until
+    // its delta is queued, and a subscription holds the write side while its baseline is computed. So
+    // every write is either in a subscriber's baseline or pushed to it as a delta, never both or neither.
+    // Writers never wait on each other; they only wait for baselines of users sharing their stripe.
+    private final ReadWriteLock[] locks = new ReadWriteLock[LOCK_STRIPES];
+    
+    // Sends events off the writing thread, so a slow client never holds up a transaction write
+    private final ThreadPoolTaskExecutor senders;
+    
+    public DashboardStreamService(DashboardService dashboardService,
+                                  @Value("${dashboard.stream.enabled:${deployment.single-instance:false}}") boolean enabled,
+                                  @Value("${dashboard.stream.timeout:1800000}") long timeoutMillis,
+                                  @Value("${dashboard.stream.max-pending-events:256}") int maxPendingEvents,
+                                  @Value("${dashboard.stream.threads:4}") int threads) {
+        this.dashboardService = dashboardService;
+        this.enabled = enabled;
+        this.timeoutMillis = timeoutMillis;
+        this.maxPendingEvents = maxPendingEvents;
+        
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        this.senders = ServiceExecutors.fixed("dashboard-stream-", threads, pool -> pool.setDaemon(true));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdown();
+        subscriptions.values().forEach(subscribed -> subscribed.forEach(s -> s.emitter.complete()));
+    }
+    
+    // Opens a stream for the summary of the period around date and the division summary between
+    // divisionStart and divisionEnd. The windows are fixed for the life of the stream.
+    public SseEmitter subscribe(String userId, String period, LocalDateTime date,
+                                LocalDateTime divisionStart, LocalDateTime divisionEnd) {
+        if (!enabled) {
+            throw new ResourceNotFoundException("The dashboard stream is not enabled on this deployment");
+        }
+        Subscription subscription = new Subscription(userId, period, date, divisionStart, divisionEnd,
+            new SseEmitter(timeoutMillis));
+        subscription.emitter.onCompletion(() -> unsubscribe(subscription));
+        subscription.emitter.onTimeout(() -> unsubscribe(subscription));
+        subscription.emitter.onError(e -> unsubscribe(subscription));
+        
+        Lock lock = locks[stripe(userId)].writeLock();
+        lock.lock();
+        try {
+            subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+            sendTotals(subscription);
+        } catch (RuntimeException e) {
+            unsubscribe(subscription);
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+        return subscription.emitter;
+    }
+    
+    // Held by a transaction write from before it saves until after it has called publish; returned locked
+    public Lock lockForWrite(String userId) {
+        Lock lock = locks[stripe(userId)].readLock();
+        lock.lock();
+        return lock;
+    }
+    
+    // Queues the delta of one write for the user's subscribers: removed is the transaction as it was
+    // before the write (null for a create) and added as it is after it (null for a delete)
+    public void publish(String userId, Transaction removed, Transaction added) {
+        Set<Subscription> subscribed = subscriptions.get(userId);
+        if (subscribed == null) {
+            return;
+        }
+        
+        for (Subscription subscription : subscribed) {
+            DashboardAccumulator summary = new DashboardAccumulator(1);
+            DashboardAccumulator divisions = new DashboardAccumulator(1);
+            boolean summaryChanged = false;
+            boolean divisionsChanged = false;
+            
+            if (removed != null && removed.getAmount() != null && removed.getDate() != null) {
+                if (subscription.inSummary(removed.getDate())) {
+                    summary.add(removed.getType(), removed.getDivision(), null, -removed.getAmount(), -1);
+                    summaryChanged = true;
+                }
+                if (subscription.inDivisions(removed.getDate())) {
+                    divisions.add(removed.getType(), removed.getDivision(), null, -removed.getAmount(), -1);
+                    divisionsChanged = true;
+                }
+            }
+            if (added != null && added.getAmount() != null && added.getDate() != null) {
+                if (subscription.inSummary(added.getDate())) {
+                    summary.add(added.getType(), added.getDivision(), null, added.getAmount(), 1);
+                    summaryChanged = true;
+                }
+                if (subscription.inDivisions(added.getDate())) {
+                    divisions.add(added.getType(), added.getDivision(), null, added.getAmount(), 1);
+                    divisionsChanged = true;
+                }
+            }
+            
+            if (summaryChanged) {
+                DashboardSummaryDTO delta = DashboardService.summaryOf(summary, subscription.period,
+                    subscription.summaryPeriod.label);
+                // Edits that leave the totals as they were (description, category) push nothing
+                if (delta.getTotalIncome() != 0 || delta.getTotalExpense() != 0) {
+                    enqueue(subscription, SUMMARY_DELTA, delta);
+                }
+            }
+            if (divisionsChanged) {
+                // Only the divisions the write touched
+                DivisionSummaryDTO delta = DashboardService.divisionSummaryOf(divisions);
+                delta.getDivisions().values().removeIf(d -> d.getIncome() == 0 && d.getExpense() == 0);
+                if (!delta.getDivisions().isEmpty()) {
+                    enqueue(subscription, DIVISION_SUMMARY_DELTA, delta);
+                }
+            }
+        }
+    }
+    
+    // Pushes the full totals again, for writes that are not published one by one (imports)
+    public void refresh(String userId) {
+        Set<Subscription> subscribed = subscriptions.get(userId);
+        if (subscribed == null) {
+            return;
+        }
+        
+        Lock lock = locks[stripe(userId)].writeLock();
+        lock.lock();
+        try {
+            for (Subscription subscription : subscribed) {
+                sendTotals(subscription);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void sendTotals(Subscription subscription) {
+        DashboardSummaryDTO summary = dashboardService.getDashboardSummary(subscription.userId, subscription.period,
+            subscription.date);
+        DivisionSummaryDTO divisions = dashboardService.getDivisionSummary(subscription.userId,
+            subscription.divisionStart, subscription.divisionEnd);
+        enqueue(subscription, SUMMARY, summary);
+        enqueue(subscription, DIVISION_SUMMARY, divisions);
+    }
+    
+    private void enqueue(Subscription subscription, String name, Object data) {
+        if (subscription.closed) {
+            return;
+        }
+        // A client that cannot keep up is disconnected; on reconnecting it starts again from full totals
+        if (subscription.pending.incrementAndGet() > maxPendingEvents) {
+            unsubscribe(subscription);
+            subscription.emitter.complete();
+            return;
+        }
+        subscription.events.add(SseEmitter.event().name(name).data(data));
+        drain(subscription);
+    }
+    
+    // At most one sender per subscription at a time, which keeps its events in order
+    private void drain(Subscription subscription) {
+        if (subscription.draining.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscription));
+        }
+    }
+    
+    private void send(Subscription subscription) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscription.events.poll()) != null) {
+                subscription.pending.decrementAndGet();
+                subscription.emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the stream already completed
+            unsubscribe(subscription);
+            subscription.events.clear();
+        } finally {
+            subscription.draining.set(false);
+        }
+        // An event queued after the last poll but before draining was cleared
+        if (!subscription.events.isEmpty()) {
+            drain(subscription);
+        }
+    }
+    
+    private void unsubscribe(Subscription subscription) {
+        subscription.closed = true;
+        subscriptions.computeIfPresent(subscription.userId, (id, subscribed) -> {
+            subscribed.remove(subscription);
+            return subscribed.isEmpty() ? null : subscribed;
+        });
+    }
+    
+    private static int stripe(String userId) {
+        return Math.floorMod(userId.hashCode(), LOCK_STRIPES);
+    }
+    
+    // Whole-day windows include their last day's final second, as the rollups and hot window that answer
+    // them do; other windows are exclusive at both ends, like the transaction queries that answer them
+    private static boolean inWindow(LocalDateTime date, LocalDateTime start, LocalDateTime end) {
+        if (DashboardService.coversWholeDays(start, end)) {
+            return !date.toLocalDate().isBefore(start.toLocalDate()) && !date.toLocalDate().isAfter(end.toLocalDate());
+        }
+        return date.isAfter(start) && date.isBefore(end);
+    }
+    
+    private static final class Subscription {
+        final String userId;
+        final String period;
+        final LocalDateTime date;
+        final DashboardService.SummaryPeriod summaryPeriod;
+        final LocalDateTime divisionStart;
+        final LocalDateTime divisionEnd;
+        final SseEmitter emitter;
+        
+        final Queue<SseEmitter.SseEventBuilder> events = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+        
+        Subscription(String userId, String period, LocalDateTime date,
+                     LocalDateTime divisionStart, LocalDateTime divisionEnd, SseEmitter emitter) {
+            this.userId = userId;
+            this.period = period;
+            this.date = date;
+            this.summaryPeriod = DashboardService.SummaryPeriod.of(period, date);
+            this.divisionStart = divisionStart;
+            this.divisionEnd = divisionEnd;
+            this.emitter = emitter;
+        }
+        
+        boolean inSummary(LocalDateTime date) {
+            return inWindow(date, summaryPeriod.startDate, summaryPeriod.endDate);
+        }
+        
+        boolean inDivisions(LocalDateTime date) {
+            return inWindow(date, divisionStart, divisionEnd);
+        }
+    }
+}
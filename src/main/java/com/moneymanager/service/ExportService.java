@@ -0,0 +1,82 @@
+package com.moneymanager.service;
+
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.exception.BadRequestException;
+import com.moneymanager.model.Money;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.model.Transfer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Exports read from a Mongo cursor, so memory use does not depend on how many rows match. CSV rows
+// are written straight to the response as they are read. XLSX is a zip that can only be written
+// whole: its rows are buffered to a temp file and the client receives nothing until the cursor
+// is exhausted, so a large XLSX export takes disk space and a long wait before its first byte.
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        CSV("text/csv", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+    }
+
+    private final TransactionService transactionService;
+    private final AccountService accountService;
+
+    public static Format formatOf(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid export format. Use CSV or XLSX");
+        }
+    }
+
+    // The filter carries the user whose transactions are exported
+    public void exportTransactions(TransactionFilter filter, Format format, OutputStream out) throws IOException {
+        try (Stream<Transaction> transactions = transactionService.streamTransactions(filter);
+             TableWriter writer = open(format, "Transactions", out)) {
+            writer.row("id", "date", "type", "division", "category", "description", "amount", "createdAt");
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                Transaction t = iterator.next();
+                writer.row(t.getId(), t.getDate(), t.getType(), t.getDivision(), t.getCategory(),
+                        t.getDescription(), amount(t.getAmount()), t.getCreatedAt());
+            }
+        }
+    }
+
+    public void exportTransfers(String userId, LocalDateTime startDate, LocalDateTime endDate, Format format,
+                                OutputStream out) throws IOException {
+        try (Stream<Transfer> transfers = accountService.streamTransfers(userId, startDate, endDate);
+             TableWriter writer = open(format, "Transfers", out)) {
+            writer.row("id", "date", "fromAccountId", "toAccountId", "description", "amount", "createdAt");
+            Iterator<Transfer> iterator = transfers.iterator();
+            while (iterator.hasNext()) {
+                Transfer t = iterator.next();
+                writer.row(t.getId(), t.getDate(), t.getFromAccountId(), t.getToAccountId(),
+                        t.getDescription(), amount(t.getAmount()), t.getCreatedAt());
+            }
+        }
+    }
+
+    private static TableWriter open(Format format, String sheetName, OutputStream out) {
+        return format == Format.XLSX ? new XlsxTableWriter(out, sheetName) : new CsvTableWriter(out);
+    }
+
+    private static Object amount(Long minor) {
+        return minor != null ? Money.toBigDecimal(minor) : null;
+    }
+}
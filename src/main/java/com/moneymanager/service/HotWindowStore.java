@@ -0,0 +1,289 @@
+package com.moneymanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// In-memory copy of each active user's transactions in the hot window (the previous and the current
+// calendar month), held as primitive columns so a dashboard total is one scan over a few arrays.
+// A user's window is loaded from Mongo on their first dashboard read and then written through by
+// TransactionService and TransactionImportService, so it is only exact while this instance is the
+// only writer of the transactions collection: it is off unless deployment.single-instance is set.
+@Slf4j
+@Service
+public class HotWindowStore {
+    
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+    private static final Transaction.Division[] DIVISIONS = Transaction.Division.values();
+    
+    // Category codes are unsigned bytes; a user with more categories in the window is served from Mongo
+    private static final int MAX_CATEGORIES = 256;
+    private static final byte NO_DIVISION = -1;
+    private static final int INITIAL_CAPACITY = 64;
+    
+    private final TransactionRepository transactionRepository;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Cache<String, Segment> segments;
+    
+    @Autowired
+    public HotWindowStore(TransactionRepository transactionRepository,
+                          @Value("${dashboard.hot-window.enabled:${deployment.single-instance:false}}") boolean enabled,
+                          @Value("${dashboard.hot-window.max-users:1000}") long maxUsers) {
+        this(transactionRepository, Clock.systemDefaultZone(), enabled, maxUsers);
+    }
+    
+    public HotWindowStore(TransactionRepository transactionRepository, Clock clock, boolean enabled, long maxUsers) {
+        this.transactionRepository = transactionRepository;
+        this.clock = clock;
+        this.enabled = enabled;
+        // An evicted segment may still be referenced by a writer; retiring it sends that writer to the replacement
+        this.segments = Caffeine.newBuilder()
+            .maximumSize(maxUsers)
+            .<String, Segment>evictionListener((userId, segment, cause) -> segment.retired = true)
+            .build();
+    }
+    
+    // Adds the user's totals for the days firstDay..lastDay (inclusive) to the accumulator and returns
+    // the number of rows added, or -1 when the days are not inside the hot window and Mongo must be read
+    public int accumulate(String userId, LocalDate firstDay, LocalDate lastDay, Transaction.TransactionType type,
+                          DashboardAccumulator totals) {
+        if (!enabled) {
+            return -1;
+        }
+        
+        Segment segment = segmentFor(userId);
+        segment.lock.lock();
+        try {
+            if (segment.retired || firstDay.toEpochDay() < segment.firstDay || lastDay.toEpochDay() > segment.lastDay) {
+                return -1;
+            }
+            if (!segment.loaded) {
+                load(userId, segment);
+            }
+            if (segment.overflowed) {
+                return -1;
+            }
+            return segment.accumulate((int) firstDay.toEpochDay(), (int) lastDay.toEpochDay(), type, totals);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+    
+    // Write-through after a transaction was saved; a transaction moved out of the window is dropped
+    public void put(Transaction transaction) {
+        apply(transaction.getUserId(), segment -> segment.put(transaction));
+    }
+    
+    public void putAll(Collection<Transaction> transactions) {
+        transactions.forEach(this::put);
+    }
+    
+    public void remove(Transaction transaction) {
+        apply(transaction.getUserId(), segment -> segment.remove(transaction.getId()));
+    }
+    
+    // Drops every loaded window; used after bulk rewrites of the transactions collection
+    public void clear() {
+        segments.asMap().values().forEach(segment -> segment.retired = true);
+        segments.invalidateAll();
+    }
+    
+    // The user's segment for the current window, replacing one left over from an earlier month
+    private Segment segmentFor(String userId) {
+        YearMonth month = YearMonth.now(clock);
+        Segment segment = segments.get(userId, k -> new Segment(month));
+        if (!segment.month.equals(month)) {
+            segment.retired = true;
+            segments.asMap().remove(userId, segment);
+            segment = segments.get(userId, k -> new Segment(month));
+        }
+        return segment;
+    }
+    
+    // Writes are applied under the segment lock, so they are ordered against the load: a write that
+    // reaches Mongo before the load is read by it, and one applied after it is replayed by id
+    private void apply(String userId, Consumer<Segment> change) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        
+        Segment segment;
+        while ((segment = segments.getIfPresent(userId)) != null) {
+            segment.lock.lock();
+            try {
+                if (!segment.retired) {
+                    if (segment.loaded && !segment.overflowed) {
+                        change.accept(segment);
+                    }
+                    return;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+    
+    private void load(String userId, Segment segment) {
+        // Derived Between finders are exclusive on both ends
+        List<Transaction> transactions = transactionRepository.findByUserIdAndDateBetween(userId,
+            LocalDate.ofEpochDay(segment.firstDay).atStartOfDay().minusNanos(1),
+            LocalDate.ofEpochDay(segment.lastDay + 1L).atStartOfDay());
+        transactions.forEach(segment::put);
+        segment.loaded = true;
+        if (segment.overflowed) {
+            log.warn("User {} has more than {} categories in the hot window; their dashboards read Mongo",
+                userId, MAX_CATEGORIES);
+        }
+    }
+    
+    // One user's window. Rows are unordered; a removed row is replaced by the last one.
+    // Guarded by its lock except for the retired flag. The load queries Mongo while holding it, so it
+    // is a ReentrantLock rather than the monitor, which would pin a virtual thread's carrier meanwhile.
+    private static final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        final YearMonth month;
+        final int firstDay;
+        final int lastDay;
+        volatile boolean retired;
+        boolean loaded;
+        boolean overflowed;
+        
+        final Map<String, Integer> rowsById = new HashMap<>();
+        final Map<String, Integer> categoryCodes = new HashMap<>();
+        final List<String> categories = new ArrayList<>();
+        String[] ids = new String[INITIAL_CAPACITY];
+        int[] days = new int[INITIAL_CAPACITY];
+        long[] amounts = new long[INITIAL_CAPACITY];
+        byte[] types = new byte[INITIAL_CAPACITY];
+        byte[] divisions = new byte[INITIAL_CAPACITY];
+        byte[] categoryOf = new byte[INITIAL_CAPACITY];
+        int size;
+        
+        Segment(YearMonth month) {
+            this.month = month;
+            this.firstDay = (int) month.minusMonths(1).atDay(1).toEpochDay();
+            this.lastDay = (int) month.atEndOfMonth().toEpochDay();
+        }
+        
+        int accumulate(int from, int to, Transaction.TransactionType type, DashboardAccumulator totals) {
+            int typeCode = type == null ? -1 : type.ordinal();
+            int rows = 0;
+            for (int i = 0; i < size; i++) {
+                int day = days[i];
+                if (day < from || day > to || (typeCode >= 0 && types[i] != typeCode)) {
+                    continue;
+                }
+                totals.add(TYPES[types[i]], divisions[i] == NO_DIVISION ? null : DIVISIONS[divisions[i]],
+                    categories.get(categoryOf[i] & 0xFF), amounts[i], 1);
+                rows++;
+            }
+            return rows;
+        }
+        
+        void put(Transaction transaction) {
+            if (overflowed) {
+                return;
+            }
+            // Rows the dashboards would skip, or dated outside the window, are not kept
+            if (transaction.getDate() == null || transaction.getAmount() == null || transaction.getType() == null) {
+                remove(transaction.getId());
+                return;
+            }
+            long day = transaction.getDate().toLocalDate().toEpochDay();
+            if (day < firstDay || day > lastDay) {
+                remove(transaction.getId());
+                return;
+            }
+            
+            Integer category = categoryCode(transaction.getCategory());
+            if (category == null) {
+                overflow();
+                return;
+            }
+            
+            Integer row = rowsById.get(transaction.getId());
+            if (row == null) {
+                row = size++;
+                if (row == ids.length) {
+                    grow();
+                }
+                ids[row] = transaction.getId();
+                rowsById.put(transaction.getId(), row);
+            }
+            days[row] = (int) day;
+            amounts[row] = transaction.getAmount();
+            types[row] = (byte) transaction.getType().ordinal();
+            divisions[row] = transaction.getDivision() == null ? NO_DIVISION : (byte) transaction.getDivision().ordinal();
+            categoryOf[row] = category.byteValue();
+        }
+        
+        void remove(String id) {
+            Integer row = rowsById.remove(id);
+            if (row == null) {
+                return;
+            }
+            
+            int last = --size;
+            if (row != last) {
+                ids[row] = ids[last];
+                days[row] = days[last];
+                amounts[row] = amounts[last];
+                types[row] = types[last];
+                divisions[row] = divisions[last];
+                categoryOf[row] = categoryOf[last];
+                rowsById.put(ids[row], row);
+            }
+            ids[last] = null;
+        }
+        
+        private Integer categoryCode(String category) {
+            Integer code = categoryCodes.get(category);
+            if (code == null && categories.size() < MAX_CATEGORIES) {
+                code = categories.size();
+                categories.add(category);
+                categoryCodes.put(category, code);
+            }
+            return code;
+        }
+        
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            days = Arrays.copyOf(days, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            types = Arrays.copyOf(types, capacity);
+            divisions = Arrays.copyOf(divisions, capacity);
+            categoryOf = Arrays.copyOf(categoryOf, capacity);
+        }
+        
+        private void overflow() {
+            overflowed = true;
+            rowsById.clear();
+            ids = null;
+            days = null;
+            amounts = null;
+            types = null;
+            divisions = null;
+            categoryOf = null;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.moneymanager.service;
+
+import com.moneymanager.dto.BalancePointDTO;
+import com.moneymanager.exception.BadRequestException;
+import com.moneymanager.model.Account;
+import com.moneymanager.model.LedgerCheckpoint;
+import com.moneymanager.model.LedgerEntry;
+import com.moneymanager.model.Money;
+import com.moneymanager.repository.LedgerCheckpointRepository;
+import com.moneymanager.repository.LedgerEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Append-only history of account balance changes (account_ledger) with a checkpoint of the
+// running balance every checkpoint-interval entries (account_ledger_checkpoints). A balance as
+// of a date is the nearest earlier checkpoint plus the entries between it and the next one.
+@Slf4j
+@Service
+public class LedgerService {
+    
+    public static final int MAX_HISTORY_POINTS = 1000;
+    
+    private final LedgerEntryRepository entryRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final int checkpointInterval;
+    
+    public LedgerService(LedgerEntryRepository entryRepository,
+                         LedgerCheckpointRepository checkpointRepository,
+                         @Value("${ledger.checkpoint-interval:100}") int checkpointInterval) {
+        this.entryRepository = entryRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.checkpointInterval = checkpointInterval;
+    }
+    
+    // Records the change that produced this account state. The account must be the state returned
+    // by the write itself (version and balance right after the change), not a later read.
+    public void record(Account account, long delta, LedgerEntry.EntryType type, String referenceId) {
+        LocalDateTime postedAt = account.getUpdatedAt() != null ? account.getUpdatedAt() : LocalDateTime.now();
+        try {
+            append(account, delta, type, referenceId, postedAt);
+        } catch (DuplicateKeyException e) {
+            // Every balance change produces a new account version, so another entry at this seq is a
+            // real conflict. The account write has already happened and is not undone; the
+            // reconciler reports the account if the ledger no longer adds up to its balance.
+            log.error("Ledger conflict: account {} already has entry {}, not recording {} of {}",
+                account.getId(), account.getVersion(), type, delta);
+        }
+    }
+    
+    // Starts the ledger of an account that predates it, from its current balance
+    public boolean open(Account account) {
+        if (checkpointRepository.existsByUserIdAndAccountId(account.getUserId(), account.getId())) {
+            return false;
+        }
+        try {
+            append(account, account.getBalance(), LedgerEntry.EntryType.OPENING, null, LocalDateTime.now());
+            return true;
+        } catch (DuplicateKeyException e) {
+            // A write (another instance, during a rolling start) recorded this version first. Its entry
+            // holds the change, not the balance, so the ledger still needs a checkpoint to start from:
+            // the balance at this version, which is the one read here.
+            return checkpointAt(account);
+        }
+    }
+    
+    // Checks the ledger of the account (latest checkpoint plus the entries after it) against its
+    // balance. Account updates and ledger entries are separate writes, so a process stopping between
+    // the two leaves the ledger behind the account; that gap is closed with a RECONCILIATION entry
+    // at the account's version. Accounts written after writtenBefore are skipped, as their entry may
+    // still be on its way. A ledger that disagrees without missing a version is only reported.
+    public Reconciliation reconcile(Account account, LocalDateTime writtenBefore) {
+        Optional<LedgerCheckpoint> checkpoint = checkpointRepository
+            .findTopByUserIdAndAccountIdOrderBySeqDesc(account.getUserId(), account.getId());
+        if (checkpoint.isEmpty()) {
+            return Reconciliation.NOT_OPENED;
+        }
+        
+        long ledgerBalance = checkpoint.get().getBalance();
+        long lastSeq = checkpoint.get().getSeq();
+        for (LedgerEntry entry : entryRepository.findByUserIdAndAccountIdAndSeqGreaterThanOrderBySeqAsc(
+                 account.getUserId(), account.getId(), lastSeq)) {
+            ledgerBalance = Money.add(ledgerBalance, entry.getDelta());
+            lastSeq = entry.getSeq();
+        }
+        if (ledgerBalance == account.getBalance()) {
+            return Reconciliation.MATCHED;
+        }
+        
+        long version = account.getVersion() != null ? account.getVersion() : 0L;
+        if (version <= lastSeq) {
+            log.error("Ledger of account {} adds up to {} at entry {} but the balance is {} at version {}",
+                account.getId(), ledgerBalance, lastSeq, account.getBalance(), version);
+            return Reconciliation.MISMATCHED;
+        }
+        if (account.getUpdatedAt() != null && account.getUpdatedAt().isAfter(writtenBefore)) {
+            return Reconciliation.SKIPPED;
+        }
+        
+        long delta = account.getBalance() - ledgerBalance;
+        try {
+            append(account, delta, LedgerEntry.EntryType.RECONCILIATION, null,
+                account.getUpdatedAt() != null ? account.getUpdatedAt() : LocalDateTime.now());
+        } catch (DuplicateKeyException e) {
+            // Recorded meanwhile, by the write itself or another instance's reconciler
+            return Reconciliation.SKIPPED;
+        }
+        log.warn("Ledger of account {} was missing {} before version {}; recorded as a reconciliation entry",
+            account.getId(), delta, version);
+        return Reconciliation.REPAIRED;
+    }
+    
+    public BalancePointDTO getBalanceAsOf(String userId, String accountId, LocalDateTime date) {
+        BalanceState state = balanceAt(userId, accountId, date)
+            .orElseThrow(() -> new BadRequestException("No balance history for account " + accountId + " as of " + date));
+        return new BalancePointDTO(date, Money.toMajor(state.balance));
+    }
+    
+    // Balance at startDate, at the end of every day/week/month after it, and at endDate
+    public List<BalancePointDTO> getBalanceHistory(String userId, String accountId, LocalDateTime startDate,
+                                                   LocalDateTime endDate, String period) {
+        List<LocalDateTime> points = historyPoints(startDate, endDate, period);
+        List<BalancePointDTO> history = new ArrayList<>(points.size());
+        
+        BalanceState state = balanceAt(userId, accountId, points.get(0)).orElse(null);
+        Long balance = state != null ? state.balance : null;
+        history.add(new BalancePointDTO(points.get(0), balance != null ? Money.toMajor(balance) : null));
+        
+        // One ordered pass over the entries in the range; the opening entry starts the balance
+        // of an account whose ledger begins inside it
+        try (Stream<LedgerEntry> entries = entryRepository.streamPostedBetween(
+                 userId, accountId, state != null ? state.seq : -1, points.get(0), points.get(points.size() - 1))) {
+            Iterator<LedgerEntry> iterator = entries.iterator();
+            LedgerEntry next = iterator.hasNext() ? iterator.next() : null;
+            for (int i = 1; i < points.size(); i++) {
+                LocalDateTime point = points.get(i);
+                while (next != null && !next.getPostedAt().isAfter(point)) {
+                    balance = balance == null ? next.getDelta() : Money.add(balance, next.getDelta());
+                    next = iterator.hasNext() ? iterator.next() : null;
+                }
+                history.add(new BalancePointDTO(point, balance != null ? Money.toMajor(balance) : null));
+            }
+        }
+        return history;
+    }
+    
+    // False when the version already has a checkpoint (its seq fell on the checkpoint interval)
+    private boolean checkpointAt(Account account) {
+        long seq = account.getVersion() != null ? account.getVersion() : 0L;
+        LocalDateTime postedAt = entryRepository.findByUserIdAndAccountIdAndSeq(account.getUserId(), account.getId(), seq)
+            .map(LedgerEntry::getPostedAt)
+            .orElseGet(LocalDateTime::now);
+        try {
+            checkpointRepository.insert(new LedgerCheckpoint(null, account.getUserId(), account.getId(), seq,
+                account.getBalance(), postedAt));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+    
+    // Throws DuplicateKeyException when the account already has an entry at this seq
+    private void append(Account account, long delta, LedgerEntry.EntryType type, String referenceId,
+                        LocalDateTime postedAt) {
+        long seq = account.getVersion() != null ? account.getVersion() : 0L;
+        entryRepository.insert(new LedgerEntry(null, account.getUserId(), account.getId(), seq, type, delta, referenceId, postedAt));
+        if (type == LedgerEntry.EntryType.OPENING || seq % checkpointInterval == 0) {
+            checkpointRepository.insert(new LedgerCheckpoint(null, account.getUserId(), account.getId(), seq,
+                account.getBalance(), postedAt));
+        }
+    }
+    
+    private Optional<BalanceState> balanceAt(String userId, String accountId, LocalDateTime date) {
+        Optional<LedgerCheckpoint> checkpoint = checkpointRepository
+            .findTopByUserIdAndAccountIdAndPostedAtLessThanEqualOrderByPostedAtDescSeqDesc(userId, accountId, date);
+        if (checkpoint.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        // Entries past the next checkpoint were posted after the date, so the scan stops there
+        long untilSeq = checkpointRepository
+            .findTopByUserIdAndAccountIdAndPostedAtGreaterThanOrderByPostedAtAscSeqAsc(userId, accountId, date)
+            .map(LedgerCheckpoint::getSeq)
+            .orElse(Long.MAX_VALUE);
+        
+        BalanceState state = new BalanceState(checkpoint.get().getBalance(), checkpoint.get().getSeq());
+        for (LedgerEntry entry : entryRepository.findTail(userId, accountId, state.seq, untilSeq, date)) {
+            state.balance = Money.add(state.balance, entry.getDelta());
+            state.seq = entry.getSeq();
+        }
+        return Optional.of(state);
+    }
+    
+    private static List<LocalDateTime> historyPoints(LocalDateTime startDate, LocalDateTime endDate, String period) {
+        if (!startDate.isBefore(endDate)) {
+            throw new BadRequestException("startDate must be before endDate");
+        }
+        
+        ChronoUnit unit;
+        switch (period.toUpperCase()) {
+            case "DAILY":
+                unit = ChronoUnit.DAYS;
+                break;
+            case "WEEKLY":
+                unit = ChronoUnit.WEEKS;
+                break;
+            case "MONTHLY":
+                unit = ChronoUnit.MONTHS;
+                break;
+            default:
+                throw new BadRequestException("Invalid period. Use DAILY, WEEKLY or MONTHLY");
+        }
+        
+        List<LocalDateTime> points = new ArrayList<>();
+        for (LocalDateTime point = startDate; point.isBefore(endDate); point = point.plus(1, unit)) {
+            points.add(point);
+            if (points.size() >= MAX_HISTORY_POINTS) {
+                throw new BadRequestException("Balance history is limited to " + MAX_HISTORY_POINTS + " points; use a longer period");
+            }
+        }
+        points.add(endDate);
+        return points;
+    }
+    
+    public enum Reconciliation {
+        MATCHED, REPAIRED, SKIPPED, MISMATCHED, NOT_OPENED
+    }
+    
+    private static final class BalanceState {
+        long balance;
+        long seq;
+        
+        BalanceState(long balance, long seq) {
+            this.balance = balance;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.moneymanager.service;
+
+import com.moneymanager.model.Account;
+import com.moneymanager.model.Money;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.model.Transfer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Converts amounts stored as decimal major units (double/int32/Decimal128) into int64 minor units.
+// Only documents still holding a legacy number type are touched, so the job is idempotent.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MoneyMigrationService {
+    
+    private static final JsonSchemaObject.Type[] LEGACY_TYPES = {
+        JsonSchemaObject.Type.DOUBLE, JsonSchemaObject.Type.INT_32, JsonSchemaObject.Type.DECIMAL_128
+    };
+    
+    private final MongoTemplate mongoTemplate;
+    private final RollupService rollupService;
+    private final HotWindowStore hotWindowStore;
+    private final SnapshotService snapshotService;
+    private final WriteVersionService writeVersionService;
+    
+    @Value("${money.migration.batch-size:1000}")
+    private int batchSize;
+    
+    public long migrate() {
+        long transactions = convert(mongoTemplate.getCollectionName(Transaction.class), "amount");
+        long transfers = convert(mongoTemplate.getCollectionName(Transfer.class), "amount");
+        long accounts = convert(mongoTemplate.getCollectionName(Account.class), "balance");
+        
+        // Rollup sums, loaded hot windows and snapshots were accumulated from the old values
+        if (transactions > 0) {
+            rollupService.rebuild();
+            hotWindowStore.clear();
+            snapshotService.clear();
+        }
+        
+        long converted = transactions + transfers + accounts;
+        if (converted > 0) {
+            writeVersionService.bumpAll();
+            log.info("Converted {} transactions, {} transfers and {} accounts to minor units",
+                transactions, transfers, accounts);
+        }
+        return converted;
+    }
+    
+    private long convert(String collection, String field) {
+        long converted = 0;
+        Object lastId = null;
+        
+        while (true) {
+            Criteria criteria = Criteria.where(field).type(LEGACY_TYPES);
+            if (lastId != null) {
+                criteria.and("_id").gt(lastId);
+            }
+            Query query = Query.query(criteria).with(Sort.by("_id")).limit(batchSize);
+            query.fields().include(field);
+            
+            List<Document> batch = mongoTemplate.find(query, Document.class, collection);
+            if (batch.isEmpty()) {
+                return converted;
+            }
+            
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+            for (Document document : batch) {
+                long minor = Money.fromMajor(toBigDecimal(document.get(field)));
+                // Re-check the type so a concurrent write in minor units is never scaled twice
+                bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(document.get("_id")).and(field).type(LEGACY_TYPES)),
+                    new Update().set(field, minor)
+                );
+            }
+            converted += bulk.execute().getModifiedCount();
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+    }
+    
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        if (value instanceof Double d) {
+            return BigDecimal.valueOf(d);
+        }
+        return BigDecimal.valueOf(((Number) value).longValue());
+    }
+}
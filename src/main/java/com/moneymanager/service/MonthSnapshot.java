@@ -0,0 +1,175 @@
+package com.moneymanager.service;
+
+import com.moneymanager.model.Money;
+import com.moneymanager.model.Transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+
+// Immutable columnar file holding one user's transactions of one closed month, read through a
+// memory mapping without copying it onto the heap. Layout (big-endian):
+//   header   magic, version, year, month, rows
+//   days     run count, then (day of month, rows) per run; rows are ordered by day
+//   types    one byte per row (TransactionType ordinal)
+//   amounts  one zigzag varint per row (minor units)
+//   footer   count, sum, min and max amount per type, then the first and last day with rows
+// Days are run-length encoded and amounts varint encoded, so a typical row takes 3-4 bytes.
+final class MonthSnapshot {
+    
+    private static final int MAGIC = 0x4D4D534E; // "MMSN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+    private static final int FOOTER_SIZE = TYPES.length * 4 * Long.BYTES + 2;
+    
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final int footer;
+    
+    private MonthSnapshot(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE + 1 + FOOTER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a version " + VERSION + " month snapshot");
+        }
+        this.buffer = buffer;
+        this.rows = buffer.getInt(16);
+        this.footer = buffer.capacity() - FOOTER_SIZE;
+    }
+    
+    static MonthSnapshot map(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new MonthSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    int rows() {
+        return rows;
+    }
+    
+    // Footer total, read without scanning the rows
+    long sum(Transaction.TransactionType type) {
+        return buffer.getLong(footer + type.ordinal() * 4 * Long.BYTES + Long.BYTES);
+    }
+    
+    // First and last day of the month with rows, 0 when the month is empty
+    int firstDay() {
+        return buffer.get(footer + TYPES.length * 4 * Long.BYTES);
+    }
+    
+    int lastDay() {
+        return buffer.get(footer + TYPES.length * 4 * Long.BYTES + 1);
+    }
+    
+    // One sequential pass over the columns; sums[type ordinal][day of month] gets each row's amount
+    void sumByDay(long[][] sums) {
+        int runs = buffer.get(HEADER_SIZE);
+        int typeAt = HEADER_SIZE + 1 + runs * (1 + Integer.BYTES);
+        int amountAt = typeAt + rows;
+        
+        for (int run = 0; run < runs; run++) {
+            int runAt = HEADER_SIZE + 1 + run * (1 + Integer.BYTES);
+            int day = buffer.get(runAt);
+            int count = buffer.getInt(runAt + 1);
+            for (int i = 0; i < count; i++) {
+                // Inline zigzag varint decode
+                long raw = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = buffer.get(amountAt++);
+                    raw |= (long) (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                long amount = (raw >>> 1) ^ -(raw & 1);
+                
+                long[] byDay = sums[buffer.get(typeAt++)];
+                byDay[day] = Money.add(byDay[day], amount);
+            }
+        }
+    }
+    
+    // Writes the rows (day of month, type ordinal, amount) to a temporary file and moves it into
+    // place, so a reader maps either the old file or the complete new one
+    static void write(Path file, YearMonth month, int[] days, byte[] types, long[] amounts, int rows) {
+        // Counting sort by day keeps the input order within a day
+        int[] perDay = new int[32];
+        for (int i = 0; i < rows; i++) {
+            perDay[days[i]]++;
+        }
+        int runs = 0;
+        int[] start = new int[32];
+        for (int day = 1, at = 0; day <= 31; day++) {
+            start[day] = at;
+            at += perDay[day];
+            if (perDay[day] > 0) {
+                runs++;
+            }
+        }
+        int[] order = new int[rows];
+        int[] next = start.clone();
+        for (int i = 0; i < rows; i++) {
+            order[next[days[i]]++] = i;
+        }
+        
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + 1 + runs * (1 + Integer.BYTES) + rows + rows * 10 + FOOTER_SIZE);
+        out.putInt(MAGIC).putInt(VERSION).putInt(month.getYear()).putInt(month.getMonthValue()).putInt(rows);
+        out.put((byte) runs);
+        for (int day = 1; day <= 31; day++) {
+            if (perDay[day] > 0) {
+                out.put((byte) day).putInt(perDay[day]);
+            }
+        }
+        for (int i : order) {
+            out.put(types[i]);
+        }
+        
+        long[] count = new long[TYPES.length];
+        long[] sum = new long[TYPES.length];
+        long[] min = new long[TYPES.length];
+        long[] max = new long[TYPES.length];
+        for (int i : order) {
+            long amount = amounts[i];
+            long raw = (amount << 1) ^ (amount >> 63);
+            while ((raw & ~0x7FL) != 0) {
+                out.put((byte) ((raw & 0x7F) | 0x80));
+                raw >>>= 7;
+            }
+            out.put((byte) raw);
+            
+            int type = types[i];
+            min[type] = count[type] == 0 ? amount : Math.min(min[type], amount);
+            max[type] = count[type] == 0 ? amount : Math.max(max[type], amount);
+            sum[type] = Money.add(sum[type], amount);
+            count[type]++;
+        }
+        for (int type = 0; type < TYPES.length; type++) {
+            out.putLong(count[type]).putLong(sum[type]).putLong(min[type]).putLong(max[type]);
+        }
+        out.put((byte) (rows == 0 ? 0 : days[order[0]]));
+        out.put((byte) (rows == 0 ? 0 : days[order[rows - 1]]));
+        out.flip();
+        
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
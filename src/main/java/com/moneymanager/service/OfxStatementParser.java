@@ -0,0 +1,142 @@
+package com.moneymanager.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+// OFX bank/card statements, both 1.x SGML (unclosed value tags) and 2.x XML. Only the fields of
+// each <STMTTRN> block are kept, so memory stays flat however long the statement is.
+class OfxStatementParser implements StatementParser {
+
+    private static final int MAX_TOKEN_LENGTH = 4096;
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter OFX_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    @Override
+    public void parse(Reader reader, RowSink sink) throws IOException, InterruptedException {
+        Tokenizer tokens = new Tokenizer(reader);
+        StatementRow line = null;
+        String name = null;
+        String memo = null;
+        long row = 0;
+
+        String tag;
+        while ((tag = tokens.nextTag()) != null) {
+            String value = tokens.value();
+
+            if (tag.equals("STMTTRN")) {
+                line = new StatementRow();
+                line.setRow(++row);
+                name = null;
+                memo = null;
+            } else if (tag.equals("/STMTTRN") && line != null) {
+                line.setDescription(describe(name, memo));
+                if (line.getError() == null && (line.getDate() == null || line.getAmount() == null)) {
+                    line.setError("DTPOSTED and TRNAMT are required");
+                }
+                sink.accept(line);
+                line = null;
+            } else if (line != null && !value.isEmpty()) {
+                try {
+                    switch (tag) {
+                        case "DTPOSTED" -> line.setDate(parseDate(value));
+                        case "TRNAMT" -> line.setAmount(new BigDecimal(value.replace(",", ".")));
+                        case "FITID" -> line.setReference(value);
+                        case "NAME", "PAYEE" -> name = value;
+                        case "MEMO" -> memo = value;
+                        default -> { }
+                    }
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    line.setError("Invalid " + tag + ": " + value);
+                }
+            }
+        }
+    }
+
+    // Dates look like 20240131, 20240131120000 or 20240131120000.000[-5:EST]; the time zone is ignored
+    private static LocalDateTime parseDate(String value) {
+        String digits = value.length() > 14 ? value.substring(0, 14) : value;
+        if (digits.length() == 14) {
+            return LocalDateTime.parse(digits, OFX_DATE_TIME);
+        }
+        return LocalDate.parse(digits.substring(0, Math.min(8, digits.length())), OFX_DATE).atStartOfDay();
+    }
+
+    private static String describe(String name, String memo) {
+        if (name == null) {
+            return memo;
+        }
+        if (memo == null || memo.equals(name)) {
+            return name;
+        }
+        return name + " - " + memo;
+    }
+
+    // Splits the input into <TAG> markers and the text that follows each one; the SGML header
+    // before <OFX> comes out as text ahead of the first tag and is ignored
+    private static class Tokenizer {
+        private final Reader reader;
+        private final StringBuilder buffer = new StringBuilder();
+        private String value = "";
+        private int pending = -2;
+
+        Tokenizer(Reader reader) {
+            this.reader = reader;
+        }
+
+        String nextTag() throws IOException {
+            int c;
+            while ((c = read()) != -1 && c != '<') {
+                // skip text that is not attached to a tag
+            }
+            if (c == -1) {
+                return null;
+            }
+
+            buffer.setLength(0);
+            while ((c = read()) != -1 && c != '>') {
+                append((char) c);
+            }
+            String tag = buffer.toString().trim().toUpperCase();
+
+            buffer.setLength(0);
+            while ((c = read()) != -1 && c != '<') {
+                append((char) c);
+            }
+            pending = c;
+            value = unescape(buffer.toString().trim());
+            return tag;
+        }
+
+        String value() {
+            return value;
+        }
+
+        private void append(char c) {
+            if (buffer.length() < MAX_TOKEN_LENGTH) {
+                buffer.append(c);
+            }
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private static String unescape(String text) {
+            if (text.indexOf('&') < 0) {
+                return text;
+            }
+            return text.replace("&lt;", "<").replace("&gt;", ">")
+                    .replace("&quot;", "\"").replace("&apos;", "'").replace("&amp;", "&");
+        }
+    }
+}
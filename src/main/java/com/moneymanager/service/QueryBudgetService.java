@@ -0,0 +1,146 @@
+package com.moneymanager.service;
+
+import com.moneymanager.config.QueryBudgetProperties;
+import com.moneymanager.dto.SlowRequestDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts the Mongo commands and documents of each HTTP request and reports the requests that go
+// over budget. Commands are attributed through a thread-local scope, so work handed to another
+// thread must be wrapped with propagate() to be counted.
+@Slf4j
+@Service
+public class QueryBudgetService {
+    
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+    
+    private static final Comparator<SlowRequestDTO> COST = Comparator
+        .comparing(SlowRequestDTO::getQueries)
+        .thenComparing(SlowRequestDTO::getDocuments);
+    
+    private final QueryBudgetProperties properties;
+    
+    // Min-heap by cost: the cheapest kept request is the one replaced
+    private final PriorityQueue<SlowRequestDTO> worst = new PriorityQueue<>(COST);
+    
+    public QueryBudgetService(QueryBudgetProperties properties) {
+        this.properties = properties;
+    }
+    
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+    
+    public RequestQueries begin(String method, String path) {
+        RequestQueries request = new RequestQueries(method, path);
+        CURRENT.set(request);
+        return request;
+    }
+    
+    public void end(RequestQueries request) {
+        CURRENT.remove();
+        
+        int queries = request.queries.get();
+        long documents = request.documents.get();
+        if (queries <= properties.getMaxQueries() && documents <= properties.getMaxDocuments()) {
+            return;
+        }
+        
+        Map<String, Long> commands = new TreeMap<>();
+        request.commands.forEach((command, count) -> commands.put(command, count.sum()));
+        SlowRequestDTO report = new SlowRequestDTO(request.method, request.path, queries, documents,
+            (System.nanoTime() - request.startNanos) / 1_000_000, commands, LocalDateTime.now());
+        
+        synchronized (worst) {
+            worst.offer(report);
+            while (worst.size() > properties.getKeep()) {
+                worst.poll();
+            }
+        }
+        // Goes through an async appender (logback-spring.xml), so the request never waits on the console
+        log.warn("{} {} over query budget: {} queries, {} documents in {} ms {}",
+            report.getMethod(), report.getPath(), report.getQueries(), report.getDocuments(),
+            report.getDurationMillis(), report.getCommands());
+    }
+    
+    // Worst first
+    public List<SlowRequestDTO> getWorstOffenders() {
+        List<SlowRequestDTO> offenders;
+        synchronized (worst) {
+            offenders = new ArrayList<>(worst);
+        }
+        offenders.sort(COST.reversed());
+        return offenders;
+    }
+    
+    public void clear() {
+        synchronized (worst) {
+            worst.clear();
+        }
+    }
+    
+    // Called by the Mongo command listener on the thread that runs the command; commands outside
+    // a request (startup runners, reactive handlers) are ignored
+    public static void recordCommand(String command, String collection) {
+        RequestQueries request = CURRENT.get();
+        if (request != null) {
+            request.queries.incrementAndGet();
+            request.commands.computeIfAbsent(command + " " + collection, k -> new LongAdder()).increment();
+        }
+    }
+    
+    public static void recordDocuments(int count) {
+        RequestQueries request = CURRENT.get();
+        if (request != null) {
+            request.documents.addAndGet(count);
+        }
+    }
+    
+    // Runs the task in the submitting thread's request scope; usable as a TaskDecorator
+    public static Runnable propagate(Runnable task) {
+        RequestQueries request = CURRENT.get();
+        if (request == null) {
+            return task;
+        }
+        return () -> {
+            RequestQueries previous = CURRENT.get();
+            CURRENT.set(request);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+    
+    // Totals of one request; shared by every thread working on it
+    public static final class RequestQueries {
+        private final String method;
+        private final String path;
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger queries = new AtomicInteger();
+        private final AtomicLong documents = new AtomicLong();
+        private final Map<String, LongAdder> commands = new ConcurrentHashMap<>();
+        
+        private RequestQueries(String method, String path) {
+            this.method = method;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.moneymanager.service;
+
+import com.moneymanager.dto.CategorySummaryDTO;
+import com.moneymanager.dto.ChartDataDTO;
+import com.moneymanager.dto.DashboardOverviewDTO;
+import com.moneymanager.dto.DashboardSummaryDTO;
+import com.moneymanager.dto.DivisionSummaryDTO;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.repository.ReactiveDailyRollupRepository;
+import com.moneymanager.repository.ReactiveTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// DashboardService over the reactive repositories ("reactive" profile). Rows are folded into the
+// accumulator as they arrive; the result DTOs are built by the same code as the blocking service.
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveDashboardService {
+    
+    private final ReactiveTransactionRepository transactionRepository;
+    private final ReactiveDailyRollupRepository dailyRollupRepository;
+    
+    @Value("${dashboard.rollups.enabled:true}")
+    private boolean rollupsEnabled;
+    
+    public Mono<DashboardSummaryDTO> getDashboardSummary(String userId, String period, LocalDateTime date) {
+        DashboardService.SummaryPeriod summaryPeriod = DashboardService.SummaryPeriod.of(period, date);
+        return accumulate(userId, summaryPeriod.startDate, summaryPeriod.endDate, null)
+            .map(totals -> DashboardService.summaryOf(totals, period, summaryPeriod.label));
+    }
+    
+    public Mono<ChartDataDTO> getChartData(String userId, String period, int year) {
+        DashboardService.ChartLayout layout = DashboardService.ChartLayout.of(period, year);
+        return (rollupsEnabled
+                ? dailyRollupRepository.sumByTypeInBuckets(userId, layout.boundaries)
+                : transactionRepository.sumByTypeInBuckets(userId, layout.boundaries))
+            .collectList()
+            .map(buckets -> DashboardService.chartOf(layout, buckets));
+    }
+    
+    public Mono<List<CategorySummaryDTO>> getCategorySummary(String userId, LocalDateTime startDate,
+                                                             LocalDateTime endDate, Transaction.TransactionType type) {
+        return accumulate(userId, startDate, endDate, type)
+            .map(totals -> DashboardService.categorySummaryOf(totals, type));
+    }
+    
+    public Mono<DivisionSummaryDTO> getDivisionSummary(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return accumulate(userId, startDate, endDate, null).map(DashboardService::divisionSummaryOf);
+    }
+    
+    // The summary, chart and window totals are subscribed together, so they run concurrently; both
+    // category summaries and the division summary are built from the one read of the window
+    public Mono<DashboardOverviewDTO> getOverview(String userId, String period, LocalDateTime date, int year,
+                                                  LocalDateTime startDate, LocalDateTime endDate) {
+        return Mono.zip(getDashboardSummary(userId, period, date), getChartData(userId, period, year),
+                accumulate(userId, startDate, endDate, null))
+            .map(results -> new DashboardOverviewDTO(results.getT1(), results.getT2(),
+                DashboardService.categorySummaryOf(results.getT3(), Transaction.TransactionType.INCOME),
+                DashboardService.categorySummaryOf(results.getT3(), Transaction.TransactionType.EXPENSE),
+                DashboardService.divisionSummaryOf(results.getT3()), startDate, endDate));
+    }
+    
+    // Same source selection as DashboardService#accumulate
+    private Mono<DashboardAccumulator> accumulate(String userId, LocalDateTime startDate, LocalDateTime endDate,
+                                                  Transaction.TransactionType type) {
+        if (rollupsEnabled && DashboardService.coversWholeDays(startDate, endDate)) {
+            return (type == null
+                    ? dailyRollupRepository.findByDayRange(userId, startDate.toLocalDate(), endDate.toLocalDate())
+                    : dailyRollupRepository.findByDayRangeAndType(userId, startDate.toLocalDate(), endDate.toLocalDate(),
+                        type))
+                .collect(DashboardAccumulator::new,
+                    (totals, r) -> totals.add(r.getType(), r.getDivision(), r.getCategory(), r.getSum(), r.getCount()));
+        }
+        
+        return (type == null
+                ? transactionRepository.findAmountsByUserIdAndDateBetween(userId, startDate, endDate)
+                : transactionRepository.findAmountsByUserIdAndDateBetweenAndType(userId, startDate, endDate, type))
+            .filter(t -> t.getAmount() != null)
+            .collect(DashboardAccumulator::new,
+                (totals, t) -> totals.add(t.getType(), t.getDivision(), t.getCategory(), t.getAmount(), 1));
+    }
+}
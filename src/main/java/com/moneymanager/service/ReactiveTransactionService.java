@@ -0,0 +1,75 @@
+package com.moneymanager.service;
+
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.dto.TransactionPageDTO;
+import com.moneymanager.dto.TransferPageDTO;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.model.Transfer;
+import com.moneymanager.repository.ReactiveTransactionRepository;
+import com.moneymanager.repository.ReactiveTransferRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Non-blocking versions of the TransactionService and AccountService list reads ("reactive" profile)
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveTransactionService {
+    
+    private final ReactiveTransactionRepository transactionRepository;
+    private final ReactiveTransferRepository transferRepository;
+    
+    public Flux<Transaction> getTransactionsByFilters(TransactionFilter filter) {
+        return transactionRepository.findByFilter(filter).map(ReactiveTransactionService::withEditable);
+    }
+    
+    public Flux<Transaction> streamTransactions(TransactionFilter filter) {
+        return transactionRepository.streamByFilter(filter).map(ReactiveTransactionService::withEditable);
+    }
+    
+    public Mono<TransactionPageDTO> getTransactionPage(TransactionFilter filter, TransactionCursor after, int limit) {
+        // One extra row tells whether another page exists, as in TransactionService
+        return transactionRepository.findPage(filter, after, limit + 1)
+            .map(ReactiveTransactionService::withEditable)
+            .collectList()
+            .map(transactions -> {
+                if (transactions.size() <= limit) {
+                    return new TransactionPageDTO(transactions, null);
+                }
+                transactions = transactions.subList(0, limit);
+                return new TransactionPageDTO(transactions,
+                    TransactionCursor.after(transactions.get(limit - 1)).encode());
+            });
+    }
+    
+    public Flux<Transfer> getTransfers(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate != null && endDate != null) {
+            return transferRepository.findByUserIdAndDateBetween(userId, startDate, endDate);
+        }
+        return transferRepository.findByUserId(userId);
+    }
+    
+    public Mono<TransferPageDTO> getTransferPage(String userId, String accountId, LocalDateTime startDate,
+                                                 LocalDateTime endDate, TransactionCursor after, int limit) {
+        return transferRepository.findPage(userId, accountId, startDate, endDate, after, limit + 1)
+            .collectList()
+            .map(transfers -> {
+                if (transfers.size() <= limit) {
+                    return new TransferPageDTO(transfers, null);
+                }
+                transfers = transfers.subList(0, limit);
+                return new TransferPageDTO(transfers, TransactionCursor.after(transfers.get(limit - 1)).encode());
+            });
+    }
+    
+    private static Transaction withEditable(Transaction transaction) {
+        transaction.setIsEditable(TransactionService.isEditable(transaction));
+        return transaction;
+    }
+}
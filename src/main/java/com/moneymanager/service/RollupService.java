@@ -0,0 +1,236 @@
+package com.moneymanager.service;
+
+import com.moneymanager.dto.TransactionAmountDTO;
+import com.moneymanager.model.DailyRollup;
+import com.moneymanager.model.Money;
+import com.moneymanager.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Maintains daily_rollups: one document per user x day x type x division x category holding the
+// sum and count of matching transactions, so dashboard reads scale with days, not rows
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RollupService {
+    
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    
+    private final MongoTemplate mongoTemplate;
+    
+    public void add(Transaction transaction) {
+        apply(transaction, 1);
+    }
+    
+    public void subtract(Transaction transaction) {
+        apply(transaction, -1);
+    }
+    
+    public void replace(Transaction previous, Transaction current) {
+        subtract(previous);
+        add(current);
+    }
+    
+    // Adds a batch of new transactions with one unordered bulk upsert per distinct rollup row
+    public void addAll(Collection<Transaction> transactions) {
+        Map<String, DailyRollup> contributions = new HashMap<>();
+        transactions.stream()
+            .map(RollupService::contributionOf)
+            .filter(Objects::nonNull)
+            .forEach(r -> merge(contributions, r));
+        if (contributions.isEmpty()) {
+            return;
+        }
+        
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyRollup.class);
+        contributions.values().forEach(c -> bulk.upsert(byId(c), increment(c, 1)));
+        bulk.execute();
+    }
+    
+    // Regenerates every user's rollups from the raw transactions collection, one user at a time, so memory
+    // is bounded by one user's rollup rows. A user's rows are overwritten in place and only then are the
+    // rows without transactions removed, so dashboards never read empty totals while it runs.
+    // Writes to a user that land while that user is being rebuilt may be lost; run it during a quiet period.
+    public long rebuild() {
+        long rebuilt = 0;
+        Set<String> users = new HashSet<>();
+        
+        try (Stream<Document> owners = usersOf(Transaction.class)) {
+            for (Iterator<Document> it = owners.iterator(); it.hasNext(); ) {
+                String userId = it.next().getString("_id");
+                users.add(userId);
+                rebuilt += rebuild(userId);
+            }
+        }
+        // Users whose transactions are all gone only have rows to remove
+        try (Stream<Document> owners = usersOf(DailyRollup.class)) {
+            for (Iterator<Document> it = owners.iterator(); it.hasNext(); ) {
+                String userId = it.next().getString("_id");
+                if (!users.contains(userId)) {
+                    rebuild(userId);
+                }
+            }
+        }
+        
+        log.info("Rebuilt {} daily rollups of {} users", rebuilt, users.size());
+        return rebuilt;
+    }
+    
+    // Rebuilds one user's rollups and returns how many rows the user now has
+    long rebuild(String userId) {
+        Map<String, DailyRollup> rollups = new HashMap<>();
+        
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        query.fields().include("userId", "type", "division", "category", "amount", "date");
+        try (Stream<TransactionAmountDTO> transactions =
+                 mongoTemplate.stream(query, TransactionAmountDTO.class, mongoTemplate.getCollectionName(Transaction.class))) {
+            transactions.map(RollupService::contributionOf)
+                .filter(Objects::nonNull)
+                .forEach(r -> merge(rollups, r));
+        }
+        
+        // Rows the rebuilt totals no longer contain, collected before anything is written
+        Set<String> stale = new HashSet<>();
+        Query existing = Query.query(Criteria.where("userId").is(userId));
+        existing.fields().include("_id");
+        try (Stream<Document> rows =
+                 mongoTemplate.stream(existing, Document.class, mongoTemplate.getCollectionName(DailyRollup.class))) {
+            rows.map(row -> row.getString("_id"))
+                .filter(id -> !rollups.containsKey(id))
+                .forEach(stale::add);
+        }
+        
+        List<DailyRollup> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        for (DailyRollup rollup : rollups.values()) {
+            batch.add(rollup);
+            if (batch.size() == REBUILD_BATCH_SIZE) {
+                overwrite(batch);
+                batch.clear();
+            }
+        }
+        overwrite(batch);
+        
+        List<String> ids = new ArrayList<>(stale);
+        for (int from = 0; from < ids.size(); from += REBUILD_BATCH_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + REBUILD_BATCH_SIZE));
+            mongoTemplate.remove(Query.query(Criteria.where("userId").is(userId).and("_id").in(chunk)), DailyRollup.class);
+        }
+        return rollups.size();
+    }
+    
+    // The rollup row a single transaction contributes, or null when it has no date or amount
+    public static DailyRollup contributionOf(Transaction transaction) {
+        return contributionOf(transaction.getUserId(), transaction.getDate(), transaction.getType(), transaction.getDivision(),
+            transaction.getCategory(), transaction.getAmount());
+    }
+    
+    public static DailyRollup contributionOf(TransactionAmountDTO transaction) {
+        return contributionOf(transaction.getUserId(), transaction.getDate(), transaction.getType(), transaction.getDivision(),
+            transaction.getCategory(), transaction.getAmount());
+    }
+    
+    private static DailyRollup contributionOf(String userId, LocalDateTime date, Transaction.TransactionType type,
+                                              Transaction.Division division, String category, Long amount) {
+        if (date == null || amount == null) {
+            return null;
+        }
+        
+        DailyRollup rollup = new DailyRollup();
+        rollup.setUserId(userId);
+        rollup.setDay(date.toLocalDate());
+        rollup.setType(type);
+        rollup.setDivision(division);
+        rollup.setCategory(category);
+        rollup.setId(userId + "|" + rollup.getDay() + "|" + type + "|" + division + "|" + category);
+        rollup.setSum(amount);
+        rollup.setCount(1L);
+        return rollup;
+    }
+    
+    private void apply(Transaction transaction, int sign) {
+        DailyRollup contribution = contributionOf(transaction);
+        if (contribution == null) {
+            return;
+        }
+        
+        mongoTemplate.upsert(byId(contribution), increment(contribution, sign), DailyRollup.class);
+        
+        // Drop rows whose last transaction was removed so empty days don't accumulate
+        if (sign < 0) {
+            mongoTemplate.remove(
+                Query.query(Criteria.where("_id").is(contribution.getId())
+                    .and("userId").is(contribution.getUserId())
+                    .and("count").lte(0)),
+                DailyRollup.class
+            );
+        }
+    }
+    
+    private void overwrite(List<DailyRollup> rollups) {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyRollup.class);
+        for (DailyRollup rollup : rollups) {
+            bulk.upsert(byId(rollup), new Update()
+                .set("day", rollup.getDay())
+                .set("type", rollup.getType())
+                .set("division", rollup.getDivision())
+                .set("category", rollup.getCategory())
+                .set("sum", rollup.getSum())
+                .set("count", rollup.getCount()));
+        }
+        bulk.execute();
+    }
+    
+    // Distinct owners of a collection as { _id: userId } documents, streamed from a cursor
+    private Stream<Document> usersOf(Class<?> entity) {
+        Aggregation owners = Aggregation.newAggregation(Aggregation.group("userId"))
+            .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return mongoTemplate.aggregateStream(owners, mongoTemplate.getCollectionName(entity), Document.class);
+    }
+    
+    private static void merge(Map<String, DailyRollup> rollups, DailyRollup contribution) {
+        rollups.merge(contribution.getId(), contribution, (a, b) -> {
+            a.setSum(Money.add(a.getSum(), b.getSum()));
+            a.setCount(a.getCount() + b.getCount());
+            return a;
+        });
+    }
+    
+    // Upserts on a sharded collection must carry the shard key
+    private static Query byId(DailyRollup contribution) {
+        return Query.query(Criteria.where("_id").is(contribution.getId()).and("userId").is(contribution.getUserId()));
+    }
+    
+    private static Update increment(DailyRollup contribution, int sign) {
+        return new Update()
+            .setOnInsert("day", contribution.getDay())
+            .setOnInsert("type", contribution.getType())
+            .setOnInsert("division", contribution.getDivision())
+            .setOnInsert("category", contribution.getCategory())
+            .inc("sum", sign < 0 ? Money.negate(contribution.getSum()) : contribution.getSum())
+            .inc("count", sign * contribution.getCount());
+    }
+}
@@ -0,0 +1,25 @@
+package com.moneymanager.service;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.function.Consumer;
+
+// Thread pools owned by the services that use them, which shut them down in @PreDestroy. They are
+// not declared as beans: an Executor bean would replace Spring Boot's applicationTaskExecutor, which
+// MVC uses for async and streaming responses.
+final class ServiceExecutors {
+
+    private ServiceExecutors() {
+    }
+
+    // A pool of exactly threads threads; settings adjusts it (queue, rejection, shutdown) before it starts
+    static ThreadPoolTaskExecutor fixed(String threadNamePrefix, int threads, Consumer<ThreadPoolTaskExecutor> settings) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        settings.accept(executor);
+        executor.initialize();
+        return executor;
+    }
+}
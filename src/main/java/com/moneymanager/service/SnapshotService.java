@@ -0,0 +1,370 @@
+package com.moneymanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moneymanager.dto.ChartBucketDTO;
+import com.moneymanager.dto.TransactionAmountDTO;
+import com.moneymanager.model.Money;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Columnar snapshots of closed months for the dashboard chart: one MonthSnapshot file per user and
+// month under dashboard.snapshots.dir, plus a "through" file naming the last month every earlier
+// month has been written up to. Charts read those months from the mapped files and only ask Mongo
+// for what follows (normally just the open month). A write dated in a snapshotted month moves the
+// user's "through" mark back before it until the next run rewrites the month, so a chart never
+// reads a stale file. Writes made by other instances never move the mark, so snapshots are off
+// unless deployment.single-instance is set.
+@Slf4j
+@Service
+public class SnapshotService {
+    
+    private static final String THROUGH_FILE = "through";
+    private static final Transaction.TransactionType[] TYPES = Transaction.TransactionType.values();
+    
+    private final TransactionRepository transactionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Path dir;
+    private final Map<String, UserSnapshots> users = new ConcurrentHashMap<>();
+    private final Cache<Path, MonthSnapshot> mapped;
+    
+    // Serializes runs, which query Mongo while holding it; not the monitor, which would pin the
+    // carrier of a virtual thread for the whole run
+    private final ReentrantLock runs = new ReentrantLock();
+    
+    @Autowired
+    public SnapshotService(TransactionRepository transactionRepository,
+                           MongoTemplate mongoTemplate,
+                           @Value("${dashboard.snapshots.enabled:${deployment.single-instance:false}}") boolean enabled,
+                           @Value("${dashboard.snapshots.dir:${java.io.tmpdir}/money-manager-snapshots}") String dir,
+                           @Value("${dashboard.snapshots.max-open-files:4096}") long maxOpenFiles) {
+        this(transactionRepository, mongoTemplate, Clock.systemDefaultZone(), enabled, Paths.get(dir), maxOpenFiles);
+    }
+    
+    public SnapshotService(TransactionRepository transactionRepository, MongoTemplate mongoTemplate, Clock clock,
+                           boolean enabled, Path dir, long maxOpenFiles) {
+        this.transactionRepository = transactionRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.dir = dir;
+        // Mapped files are released by the GC once evicted
+        this.mapped = Caffeine.newBuilder().maximumSize(maxOpenFiles).build();
+    }
+    
+    // Writes every closed month not yet snapshotted, for every user; returns the number of months written.
+    // Runs are serialized; reads and invalidations don't wait for them.
+    public long snapshotClosedMonths() {
+        if (!enabled) {
+            return 0;
+        }
+        
+        runs.lock();
+        try {
+            long months = 0;
+            for (String userId : mongoTemplate.findDistinct(new Query(), "userId", Transaction.class, String.class)) {
+                months += writeClosedMonths(userId);
+            }
+            log.info("Wrote {} month snapshots", months);
+            return months;
+        } finally {
+            runs.unlock();
+        }
+    }
+    
+    public long snapshotUser(String userId) {
+        runs.lock();
+        try {
+            return writeClosedMonths(userId);
+        } finally {
+            runs.unlock();
+        }
+    }
+    
+    private long writeClosedMonths(String userId) {
+        YearMonth lastClosed = YearMonth.now(clock).minusMonths(1);
+        UserSnapshots state = stateOf(userId);
+        
+        YearMonth from;
+        state.lock.lock();
+        try {
+            from = state.through != null ? state.through.plusMonths(1) : null;
+            state.invalidatedFrom = null;
+        } finally {
+            state.lock.unlock();
+        }
+        if (from == null) {
+            Optional<Transaction> first = transactionRepository.findFirstByUserIdOrderByDateAsc(userId);
+            if (first.isEmpty() || first.get().getDate() == null) {
+                return 0;
+            }
+            from = YearMonth.from(first.get().getDate());
+        }
+        
+        long months = 0;
+        for (YearMonth month = from; !month.isAfter(lastClosed); month = month.plusMonths(1)) {
+            writeMonth(userId, month);
+            months++;
+        }
+        if (months > 0) {
+            advance(userId, state, lastClosed);
+        }
+        return months;
+    }
+    
+    // Bucket totals for a chart: snapshotted months are summed from the files, and mongo is called
+    // with the boundaries of whatever follows the last snapshotted month, if any of it is in range
+    public List<ChartBucketDTO> sumByTypeInBuckets(String userId, List<LocalDateTime> boundaries,
+                                                   Function<List<LocalDateTime>, List<ChartBucketDTO>> mongo) {
+        LocalDateTime cutoff = coveredUntil(userId);
+        if (cutoff == null || !cutoff.isAfter(boundaries.get(0))) {
+            return mongo.apply(boundaries);
+        }
+        
+        int buckets = boundaries.size() - 1;
+        long[] income = new long[buckets];
+        long[] expense = new long[buckets];
+        addSnapshots(userId, boundaries, cutoff, income, expense);
+        
+        LocalDateTime last = boundaries.get(buckets);
+        if (cutoff.isBefore(last)) {
+            // The open part starts mid-bucket unless the cutoff is itself a boundary
+            int first = bucketOf(boundaries, cutoff);
+            List<LocalDateTime> open = new ArrayList<>(boundaries.subList(first, buckets + 1));
+            open.set(0, cutoff);
+            for (ChartBucketDTO bucket : mongo.apply(open)) {
+                int i = bucket.getBucketStart().equals(cutoff) ? first : bucketOf(boundaries, bucket.getBucketStart());
+                income[i] = Money.add(income[i], bucket.getIncome() != null ? bucket.getIncome() : 0L);
+                expense[i] = Money.add(expense[i], bucket.getExpense() != null ? bucket.getExpense() : 0L);
+            }
+        }
+        
+        List<ChartBucketDTO> totals = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            totals.add(new ChartBucketDTO(boundaries.get(i), income[i], expense[i]));
+        }
+        return totals;
+    }
+    
+    // Called after a transaction write: a snapshotted month the write landed in stops being read
+    public void invalidate(Transaction transaction) {
+        if (!enabled || transaction.getUserId() == null || transaction.getDate() == null) {
+            return;
+        }
+        
+        YearMonth month = YearMonth.from(transaction.getDate());
+        if (!month.isBefore(YearMonth.now(clock))) {
+            return;
+        }
+        UserSnapshots state = stateOf(transaction.getUserId());
+        state.lock.lock();
+        try {
+            // Also remembered for a run in progress, which must not advance past it
+            if (state.invalidatedFrom == null || month.isBefore(state.invalidatedFrom)) {
+                state.invalidatedFrom = month;
+            }
+            if (state.through != null && !month.isAfter(state.through)) {
+                setThrough(transaction.getUserId(), state, month.minusMonths(1));
+            }
+        } finally {
+            state.lock.unlock();
+        }
+    }
+    
+    // Drops every snapshot; used after bulk rewrites of the transactions collection
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        
+        users.clear();
+        mapped.invalidateAll();
+        try {
+            FileSystemUtils.deleteRecursively(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    // Start of the first month not covered by the user's snapshots, or null when none are
+    private LocalDateTime coveredUntil(String userId) {
+        if (!enabled) {
+            return null;
+        }
+        
+        YearMonth through = stateOf(userId).through;
+        return through != null ? through.plusMonths(1).atDay(1).atStartOfDay() : null;
+    }
+    
+    private void addSnapshots(String userId, List<LocalDateTime> boundaries, LocalDateTime cutoff,
+                              long[] income, long[] expense) {
+        YearMonth last = YearMonth.from(cutoff.minusDays(1));
+        YearMonth lastInRange = YearMonth.from(boundaries.get(boundaries.size() - 1).minusNanos(1));
+        if (lastInRange.isBefore(last)) {
+            last = lastInRange;
+        }
+        long[][] byDay = new long[TYPES.length][32];
+        
+        for (YearMonth month = YearMonth.from(boundaries.get(0)); !month.isAfter(last); month = month.plusMonths(1)) {
+            Path file = monthFile(userId, month);
+            MonthSnapshot snapshot = mapped.get(file, f -> Files.exists(f) ? MonthSnapshot.map(f) : null);
+            if (snapshot == null || snapshot.rows() == 0) {
+                continue;
+            }
+            
+            // A month whose rows all fall in one bucket is answered by the footer alone
+            int firstBucket = bucketOf(boundaries, month.atDay(snapshot.firstDay()).atStartOfDay());
+            int lastBucket = bucketOf(boundaries, month.atDay(snapshot.lastDay()).atStartOfDay());
+            if (firstBucket == lastBucket && firstBucket >= 0) {
+                income[firstBucket] = Money.add(income[firstBucket], snapshot.sum(Transaction.TransactionType.INCOME));
+                expense[firstBucket] = Money.add(expense[firstBucket], snapshot.sum(Transaction.TransactionType.EXPENSE));
+                continue;
+            }
+            
+            for (long[] days : byDay) {
+                Arrays.fill(days, 0L);
+            }
+            snapshot.sumByDay(byDay);
+            for (int day = snapshot.firstDay(); day <= snapshot.lastDay(); day++) {
+                int bucket = bucketOf(boundaries, month.atDay(day).atStartOfDay());
+                if (bucket >= 0) {
+                    income[bucket] = Money.add(income[bucket], byDay[Transaction.TransactionType.INCOME.ordinal()][day]);
+                    expense[bucket] = Money.add(expense[bucket], byDay[Transaction.TransactionType.EXPENSE.ordinal()][day]);
+                }
+            }
+        }
+    }
+    
+    // Index of the bucket holding the instant, or -1 outside the boundaries
+    private static int bucketOf(List<LocalDateTime> boundaries, LocalDateTime instant) {
+        if (instant.isBefore(boundaries.get(0)) || !instant.isBefore(boundaries.get(boundaries.size() - 1))) {
+            return -1;
+        }
+        int i = 0;
+        while (!instant.isBefore(boundaries.get(i + 1))) {
+            i++;
+        }
+        return i;
+    }
+    
+    private void writeMonth(String userId, YearMonth month) {
+        // Derived Between finders are exclusive on both ends
+        List<TransactionAmountDTO> transactions = transactionRepository.findAmountsByUserIdAndDateBetween(userId,
+            month.atDay(1).atStartOfDay().minusNanos(1), month.plusMonths(1).atDay(1).atStartOfDay());
+        
+        int[] days = new int[transactions.size()];
+        byte[] types = new byte[transactions.size()];
+        long[] amounts = new long[transactions.size()];
+        int rows = 0;
+        for (TransactionAmountDTO t : transactions) {
+            // Rows the chart aggregation would not count are left out
+            if (t.getType() == null || t.getAmount() == null || t.getDate() == null) {
+                continue;
+            }
+            days[rows] = t.getDate().getDayOfMonth();
+            types[rows] = (byte) t.getType().ordinal();
+            amounts[rows] = t.getAmount();
+            rows++;
+        }
+        
+        Path file = monthFile(userId, month);
+        try {
+            if (rows == 0) {
+                Files.deleteIfExists(file);
+            } else {
+                MonthSnapshot.write(file, month, days, types, amounts, rows);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        mapped.invalidate(file);
+    }
+    
+    // Moves the mark forward after a run, but not past a month that was written to during it
+    private void advance(String userId, UserSnapshots state, YearMonth lastClosed) {
+        state.lock.lock();
+        try {
+            YearMonth through = lastClosed;
+            if (state.invalidatedFrom != null && !state.invalidatedFrom.isAfter(through)) {
+                through = state.invalidatedFrom.minusMonths(1);
+            }
+            state.invalidatedFrom = null;
+            setThrough(userId, state, through);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+    
+    private void setThrough(String userId, UserSnapshots state, YearMonth through) {
+        Path file = userDir(userId).resolve(THROUGH_FILE);
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, through.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        state.through = through;
+    }
+    
+    private UserSnapshots stateOf(String userId) {
+        return users.computeIfAbsent(userId, id -> {
+            UserSnapshots state = new UserSnapshots();
+            Path file = userDir(id).resolve(THROUGH_FILE);
+            try {
+                if (Files.exists(file)) {
+                    state.through = YearMonth.parse(Files.readString(file).trim());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return state;
+        });
+    }
+    
+    private Path monthFile(String userId, YearMonth month) {
+        return userDir(userId).resolve(month + ".snap");
+    }
+    
+    // User ids are arbitrary token claims, so they are encoded before being used as a directory name
+    private Path userDir(String userId) {
+        return dir.resolve(Base64.getUrlEncoder().withoutPadding().encodeToString(userId.getBytes(StandardCharsets.UTF_8)));
+    }
+    
+    // Guarded by its lock, which is held around file writes; a ReentrantLock like the run lock, so a
+    // virtual thread waiting on the disk does not pin its carrier
+    private static final class UserSnapshots {
+        final ReentrantLock lock = new ReentrantLock();
+        // Every month up to and including this one has been written; null before the first run
+        volatile YearMonth through;
+        // Earliest month written to since the current run started
+        YearMonth invalidatedFrom;
+    }
+}
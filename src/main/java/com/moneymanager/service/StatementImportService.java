@@ -0,0 +1,353 @@
+package com.moneymanager.service;
+
+import com.moneymanager.config.StatementImportProperties;
+import com.moneymanager.dto.BulkImportResultDTO;
+import com.moneymanager.dto.ImportProgressDTO;
+import com.moneymanager.exception.BadRequestException;
+import com.moneymanager.exception.ResourceNotFoundException;
+import com.moneymanager.model.Money;
+import com.moneymanager.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Statement imports run as a two-stage pipeline: the request thread parses the body and maps each
+// line onto a Transaction, and a writer thread batches the rows into bulk inserts. The bounded
+// queue between them is the backpressure: when Mongo falls behind the parser stops reading, so
+// memory stays at roughly queue capacity + one batch whatever the size of the statement.
+// Duplicates are caught by the unique (userId, importKey) index, which also makes re-imports idempotent.
+@Service
+public class StatementImportService {
+
+    public enum Format { CSV, OFX }
+
+    private static final int RECENT_IMPORTS = 100;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final Pending END = new Pending(0, null, null);
+
+    private final TransactionImportService transactionImportService;
+    private final StatementImportProperties properties;
+
+    // Writes one import each; imports beyond maxConcurrent queue for a writer
+    private final ThreadPoolTaskExecutor writers;
+
+    // Progress of running and recently finished imports by user and import id, oldest finished ones dropped first
+    private final Map<String, ImportJob> imports = Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ImportJob> eldest) {
+                    return size() > RECENT_IMPORTS && !eldest.getValue().isRunning();
+                }
+            });
+
+    public StatementImportService(TransactionImportService transactionImportService,
+                                  StatementImportProperties properties) {
+        this.transactionImportService = transactionImportService;
+        this.properties = properties;
+
+        this.writers = ServiceExecutors.fixed("statement-import-", properties.getMaxConcurrent(), pool -> {
+            pool.setWaitForTasksToCompleteOnShutdown(true);
+            pool.setAwaitTerminationSeconds(30);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdown();
+    }
+
+    public ImportProgressDTO importStatement(String userId, String importId, Format format, InputStream body,
+                                             Transaction.Division division) throws IOException {
+        String id = importId != null ? importId : UUID.randomUUID().toString();
+        ImportJob job = new ImportJob(userId, id, format);
+        synchronized (imports) {
+            ImportJob existing = imports.get(jobKey(userId, id));
+            if (existing != null && existing.isRunning()) {
+                throw new BadRequestException("Import " + id + " is already running");
+            }
+            imports.put(jobKey(userId, id), job);
+        }
+
+        BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Future<BulkImportResultDTO> writer = writers.submit(() -> write(queue, job));
+        StatementParser parser = format == Format.CSV
+                ? new CsvStatementParser(DateTimeFormatter.ofPattern(properties.getDateFormat()))
+                : new OfxStatementParser();
+        RowMapper mapper = new RowMapper(format, division != null ? division : properties.getDefaultDivision());
+
+        Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        RuntimeException parseFailure = null;
+        try {
+            try {
+                parser.parse(reader, line -> {
+                    job.rowsRead.incrementAndGet();
+                    enqueue(queue, writer, mapper.map(line));
+                });
+            } catch (WriterStoppedException e) {
+                // The writer's own exception comes out of writer.get() below
+            } catch (IOException | RuntimeException e) {
+                parseFailure = e instanceof RuntimeException runtime ? runtime
+                        : new IllegalStateException("Could not read the statement: " + e.getMessage(), e);
+            }
+            // Rows parsed before a failure are still written
+            try {
+                enqueue(queue, writer, END);
+            } catch (WriterStoppedException e) {
+                // As above
+            }
+
+            BulkImportResultDTO result = writer.get();
+            result.setReceived(job.rowsRead.get());
+            job.finish(result, parseFailure != null ? parseFailure.getMessage() : null);
+        } catch (InterruptedException e) {
+            writer.cancel(true);
+            Thread.currentThread().interrupt();
+            job.finish(null, "Import interrupted");
+            throw new IllegalStateException("Import " + id + " was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            job.finish(null, cause.getMessage());
+            throw new IllegalStateException("Import " + id + " failed: " + cause.getMessage(), cause);
+        }
+
+        if (parseFailure != null) {
+            throw parseFailure;
+        }
+        return job.snapshot();
+    }
+
+    public ImportProgressDTO getProgress(String userId, String importId) {
+        ImportJob job = imports.get(jobKey(userId, importId));
+        if (job == null) {
+            throw new ResourceNotFoundException("Import not found with id: " + importId);
+        }
+        return job.snapshot();
+    }
+
+    private static String jobKey(String userId, String importId) {
+        return userId + "|" + importId;
+    }
+
+    // Blocks while the queue is full, but gives up if the writer has stopped taking rows
+    private static void enqueue(BlockingQueue<Pending> queue, Future<?> writer, Pending item)
+            throws InterruptedException {
+        while (!queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                throw new WriterStoppedException();
+            }
+        }
+    }
+
+    private BulkImportResultDTO write(BlockingQueue<Pending> queue, ImportJob job) throws InterruptedException {
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        TransactionImportService.Batch batch = new TransactionImportService.Batch(job.userId);
+
+        for (Pending item = queue.take(); item != END; item = queue.take()) {
+            if (item.error != null) {
+                TransactionImportService.fail(result, item.row, item.error);
+            } else {
+                transactionImportService.add(batch, item.row, item.transaction, result);
+            }
+            job.update(result);
+        }
+
+        transactionImportService.flush(batch, result);
+        job.update(result);
+        return result;
+    }
+
+    // Applies the mapping rules to one statement line; one instance per import, on the parser thread
+    private class RowMapper {
+        private final Format format;
+        private final Transaction.Division division;
+        private final MessageDigest digest;
+        // Lines seen so far per fingerprint
+        private final Map<String, Integer> occurrences = new HashMap<>();
+
+        RowMapper(Format format, Transaction.Division division) {
+            this.format = format;
+            this.division = division;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        Pending map(StatementRow line) {
+            if (line.getError() != null) {
+                return new Pending(line.getRow(), null, line.getError());
+            }
+
+            try {
+                Transaction.TransactionType type = typeOf(line);
+                String description = line.getDescription();
+
+                Transaction transaction = new Transaction();
+                transaction.setType(type);
+                transaction.setAmount(Money.fromMajor(line.getAmount().abs()));
+                transaction.setDescription(description);
+                transaction.setDate(line.getDate());
+                transaction.setCategory(line.getCategory() != null ? line.getCategory() : categoryOf(description, type));
+                transaction.setDivision(line.getDivision() != null
+                        ? Transaction.Division.valueOf(line.getDivision().toUpperCase())
+                        : divisionOf(description));
+                transaction.setImportKey(importKey(line, transaction));
+                return new Pending(line.getRow(), transaction, null);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return new Pending(line.getRow(), null, e.getMessage());
+            }
+        }
+
+        // An explicit type column wins (INCOME/EXPENSE or CREDIT/DEBIT), otherwise the sign decides
+        private Transaction.TransactionType typeOf(StatementRow line) {
+            if (line.getType() == null) {
+                return line.getAmount().signum() < 0
+                        ? Transaction.TransactionType.EXPENSE
+                        : Transaction.TransactionType.INCOME;
+            }
+            return switch (line.getType().toUpperCase()) {
+                case "CREDIT" -> Transaction.TransactionType.INCOME;
+                case "DEBIT" -> Transaction.TransactionType.EXPENSE;
+                default -> Transaction.TransactionType.valueOf(line.getType().toUpperCase());
+            };
+        }
+
+        private String categoryOf(String description, Transaction.TransactionType type) {
+            String matched = firstMatch(properties.getCategoryKeywords(), description);
+            if (matched != null) {
+                return matched;
+            }
+            return type == Transaction.TransactionType.INCOME
+                    ? properties.getDefaultIncomeCategory()
+                    : properties.getDefaultExpenseCategory();
+        }
+
+        private Transaction.Division divisionOf(String description) {
+            Transaction.Division matched = firstMatch(properties.getDivisionKeywords(), description);
+            return matched != null ? matched : division;
+        }
+
+        private <K> K firstMatch(Map<K, List<String>> rules, String description) {
+            if (description == null || rules.isEmpty()) {
+                return null;
+            }
+            String text = description.toLowerCase();
+            for (Map.Entry<K, List<String>> rule : rules.entrySet()) {
+                for (String keyword : rule.getValue()) {
+                    if (text.contains(keyword.toLowerCase())) {
+                        return rule.getKey();
+                    }
+                }
+            }
+            return null;
+        }
+
+        // The bank's own id when the statement has one; otherwise a fingerprint of the row plus its
+        // occurrence among identical lines of this statement. Two equal coffees on the same day are
+        // then two transactions, and re-importing the statement produces the same keys again. The
+        // first occurrence keeps the plain fingerprint, matching keys written before the ordinal existed.
+        private String importKey(StatementRow line, Transaction transaction) {
+            if (line.getReference() != null) {
+                return format.name().toLowerCase() + ":" + line.getReference();
+            }
+            String content = transaction.getDate() + "|" + transaction.getAmount() + "|"
+                    + transaction.getType() + "|" + (transaction.getDescription() != null ? transaction.getDescription() : "");
+            byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+            String fingerprint = HexFormat.of().formatHex(hash, 0, 16);
+            int occurrence = occurrences.merge(fingerprint, 1, Integer::sum);
+            return "sha:" + fingerprint + (occurrence > 1 ? ":" + occurrence : "");
+        }
+    }
+
+    // A mapped row (or the reason it was rejected) on its way to the writer
+    private static final class Pending {
+        final long row;
+        final Transaction transaction;
+        final String error;
+
+        Pending(long row, Transaction transaction, String error) {
+            this.row = row;
+            this.transaction = transaction;
+            this.error = error;
+        }
+    }
+
+    private static class WriterStoppedException extends RuntimeException {
+        WriterStoppedException() {
+            super("Import writer stopped unexpectedly");
+        }
+    }
+
+    // Counters are published by the writer after every row so progress can be polled mid-import
+    private static class ImportJob {
+        final String userId;
+        final String id;
+        final Format format;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong rowsRead = new AtomicLong();
+        volatile long inserted;
+        volatile long duplicates;
+        volatile long failed;
+        volatile boolean running = true;
+        volatile String error;
+        volatile List<BulkImportResultDTO.RowFailure> failures;
+        volatile LocalDateTime finishedAt;
+
+        ImportJob(String userId, String id, Format format) {
+            this.userId = userId;
+            this.id = id;
+            this.format = format;
+        }
+
+        boolean isRunning() {
+            return running;
+        }
+
+        void update(BulkImportResultDTO result) {
+            inserted = result.getInserted();
+            duplicates = result.getDuplicates();
+            failed = result.getFailed();
+        }
+
+        void finish(BulkImportResultDTO result, String error) {
+            if (result != null) {
+                update(result);
+                failures = result.getFailures();
+            }
+            this.error = error;
+            finishedAt = LocalDateTime.now();
+            running = false;
+        }
+
+        ImportProgressDTO snapshot() {
+            String status = running ? "RUNNING" : error == null ? "COMPLETED" : "FAILED";
+            return new ImportProgressDTO(id, format.name(), status, rowsRead.get(), inserted, duplicates,
+                    failed, failures, error, startedAt, finishedAt);
+        }
+    }
+}
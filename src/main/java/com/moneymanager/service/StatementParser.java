@@ -0,0 +1,16 @@
+package com.moneymanager.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Reads a statement incrementally and hands each line to the sink as soon as it is parsed
+interface StatementParser {
+
+    void parse(Reader reader, RowSink sink) throws IOException, InterruptedException;
+
+    @FunctionalInterface
+    interface RowSink {
+        // May block while the next stage catches up
+        void accept(StatementRow row) throws InterruptedException;
+    }
+}
@@ -0,0 +1,20 @@
+package com.moneymanager.service;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One statement line as read from the file, before any mapping rules are applied
+@Data
+class StatementRow {
+    private long row; // 1-based position in the statement
+    private LocalDateTime date;
+    private BigDecimal amount; // signed: negative for money going out
+    private String description;
+    private String type;
+    private String category;
+    private String division;
+    private String reference; // bank-assigned id (OFX FITID or a reference column), if any
+    private String error; // set when the line could not be parsed
+}
@@ -0,0 +1,10 @@
+package com.moneymanager.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Row-at-a-time output for exports. Values may be String, Number, LocalDateTime, enums or null.
+interface TableWriter extends Closeable {
+
+    void row(Object... values) throws IOException;
+}
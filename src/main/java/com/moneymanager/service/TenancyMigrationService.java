@@ -0,0 +1,125 @@
+package com.moneymanager.service;
+
+import com.moneymanager.config.Tenancy;
+import com.moneymanager.model.Account;
+import com.moneymanager.model.Category;
+import com.moneymanager.model.DailyRollup;
+import com.moneymanager.model.LedgerCheckpoint;
+import com.moneymanager.model.LedgerEntry;
+import com.moneymanager.model.Transaction;
+import com.moneymanager.model.Transfer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+// Moves a single-user database to per-user partitioning:
+// - documents without a userId are assigned to the default user
+// - the indexes that the userId-led ones replaced are dropped, once; MongoIndexConfig creates the new ones
+// - rollups are rebuilt whenever transactions or rollups were assigned, since their ids include the user
+// Every step is a no-op once done, so the job is idempotent.
+@Slf4j
+@Service
+public class TenancyMigrationService {
+    
+    public static final List<Class<?>> OWNED = List.of(
+        Transaction.class, Transfer.class, Account.class, Category.class,
+        DailyRollup.class, LedgerEntry.class, LedgerCheckpoint.class
+    );
+    
+    // Indexes declared before documents carried a userId, by collection. Only these are dropped, so
+    // indexes added by hand are left alone.
+    static final Map<Class<?>, List<String>> LEGACY_INDEXES = Map.of(
+        Transaction.class, List.of("date_id", "type_division_category_date", "division_category_date",
+            "category_date", "importKey"),
+        Transfer.class, List.of("date_id", "from_account_date", "to_account_date"),
+        DailyRollup.class, List.of("day"),
+        LedgerEntry.class, List.of("account_seq", "account_posted"),
+        LedgerCheckpoint.class, List.of("account_seq", "account_posted_seq")
+    );
+    
+    // Completed one-shot steps, by _id
+    static final String MIGRATIONS = "migrations";
+    static final String LEGACY_INDEXES_DROPPED = "tenancy-legacy-indexes-dropped";
+    
+    private final MongoTemplate mongoTemplate;
+    private final RollupService rollupService;
+    private final HotWindowStore hotWindowStore;
+    private final SnapshotService snapshotService;
+    private final WriteVersionService writeVersionService;
+    private final String defaultUserId;
+    
+    public TenancyMigrationService(MongoTemplate mongoTemplate,
+                                   RollupService rollupService,
+                                   HotWindowStore hotWindowStore,
+                                   SnapshotService snapshotService,
+                                   WriteVersionService writeVersionService,
+                                   @Value(Tenancy.DEFAULT_USER) String defaultUserId) {
+        this.mongoTemplate = mongoTemplate;
+        this.rollupService = rollupService;
+        this.hotWindowStore = hotWindowStore;
+        this.snapshotService = snapshotService;
+        this.writeVersionService = writeVersionService;
+        this.defaultUserId = defaultUserId;
+    }
+    
+    public long migrate() {
+        dropLegacyIndexes();
+        
+        long assigned = 0;
+        boolean staleRollups = false;
+        for (Class<?> type : OWNED) {
+            // is(null) also matches a userId stored as null, e.g. rollups rebuilt from ownerless transactions
+            long updated = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("userId").is(null)),
+                new Update().set("userId", defaultUserId),
+                type
+            ).getModifiedCount();
+            assigned += updated;
+            if ((type == Transaction.class || type == DailyRollup.class) && updated > 0) {
+                staleRollups = true;
+            }
+        }
+        
+        if (staleRollups) {
+            rollupService.rebuild();
+        }
+        if (assigned > 0) {
+            hotWindowStore.clear();
+            snapshotService.clear();
+            writeVersionService.bumpAll();
+            log.info("Assigned {} documents without an owner to user {}", assigned, defaultUserId);
+        }
+        return assigned;
+    }
+    
+    // Runs once per database; the marker is written after the last drop, so an interrupted run is
+    // repeated and skips the indexes already gone
+    private void dropLegacyIndexes() {
+        Query marker = Query.query(Criteria.where("_id").is(LEGACY_INDEXES_DROPPED));
+        if (mongoTemplate.exists(marker, MIGRATIONS)) {
+            return;
+        }
+        
+        LEGACY_INDEXES.forEach((type, names) -> {
+            IndexOperations indexOps = mongoTemplate.indexOps(type);
+            for (IndexInfo index : indexOps.getIndexInfo()) {
+                if (names.contains(index.getName())) {
+                    indexOps.dropIndex(index.getName());
+                    log.info("Dropped index {} on {}: replaced by a userId-led index", index.getName(),
+                        mongoTemplate.getCollectionName(type));
+                }
+            }
+        });
+        mongoTemplate.upsert(marker, new Update().set("appliedAt", new Date()), MIGRATIONS);
+    }
+}
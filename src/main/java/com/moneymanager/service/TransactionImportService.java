@@ -0,0 +1,194 @@
+package com.moneymanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moneymanager.dto.BulkImportResultDTO;
+import com.moneymanager.model.Transaction;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Bulk ingestion: rows are validated and written in batches with unordered bulk inserts, and a
+// bad row is reported with its position instead of aborting the rest of the import
+@Service
+@RequiredArgsConstructor
+public class TransactionImportService {
+    
+    private static final int MAX_REPORTED_FAILURES = 1000;
+    private static final int DUPLICATE_KEY = 11000;
+    
+    private final MongoTemplate mongoTemplate;
+    private final RollupService rollupService;
+    private final HotWindowStore hotWindowStore;
+    private final SnapshotService snapshotService;
+    private final WriteVersionService writeVersionService;
+    private final DashboardStreamService dashboardStreamService;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${transactions.bulk.batch-size:1000}")
+    private int batchSize;
+    
+    // Accepts a JSON array of transactions or newline-delimited JSON, read incrementally
+    public BulkImportResultDTO importJson(String userId, InputStream body) throws IOException {
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        Batch batch = new Batch(userId);
+        long row = 0;
+        
+        try (MappingIterator<JsonNode> rows = objectMapper.readerFor(JsonNode.class).readValues(body)) {
+            while (true) {
+                JsonNode node;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    node = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    // The parser can't resynchronize after a syntax error, so stop reading here
+                    fail(result, row + 1, "Malformed JSON: " + e.getOriginalMessage());
+                    break;
+                }
+                row++;
+                
+                // null, numbers, strings and arrays fail their own row; the rest of the import goes on
+                if (node == null || !node.isObject()) {
+                    fail(result, row, "Expected a transaction object, got "
+                        + (node == null ? "null" : node.getNodeType().name().toLowerCase()));
+                    continue;
+                }
+                
+                Transaction transaction;
+                try {
+                    transaction = objectMapper.treeToValue(node, Transaction.class);
+                } catch (JsonProcessingException e) {
+                    fail(result, row, e.getOriginalMessage());
+                    continue;
+                }
+                add(batch, row, transaction, result);
+            }
+        }
+        
+        result.setReceived(row);
+        flush(batch, result);
+        return result;
+    }
+    
+    // Validates one row and queues it, writing the batch once it is full
+    void add(Batch batch, long row, Transaction transaction, BulkImportResultDTO result) {
+        String error = validate(transaction);
+        if (error != null) {
+            fail(result, row, error);
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        if (transaction.getDate() == null) {
+            transaction.setDate(now);
+        }
+        // Assigned here because bulk inserts don't write generated ids back, and the hot window keys rows by id
+        transaction.setId(new ObjectId().toHexString());
+        transaction.setUserId(batch.userId);
+        if (transaction.getImportKey() != null && transaction.getImportKey().isBlank()) {
+            transaction.setImportKey(null);
+        }
+        transaction.setCreatedAt(now);
+        transaction.setUpdatedAt(now);
+        transaction.setIsEditable(null);
+        
+        batch.rows.add(row);
+        batch.transactions.add(transaction);
+        if (batch.transactions.size() >= batchSize) {
+            flush(batch, result);
+        }
+    }
+    
+    void flush(Batch batch, BulkImportResultDTO result) {
+        if (batch.transactions.isEmpty()) {
+            return;
+        }
+        
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+        bulk.insert(batch.transactions);
+        
+        Set<Integer> rejected = new HashSet<>();
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                rejected.add(error.getIndex());
+                if (error.getCode() == DUPLICATE_KEY) {
+                    result.setDuplicates(result.getDuplicates() + 1);
+                } else {
+                    fail(result, batch.rows.get(error.getIndex()), error.getMessage());
+                }
+            }
+        }
+        
+        List<Transaction> inserted = new ArrayList<>(batch.transactions.size());
+        for (int i = 0; i < batch.transactions.size(); i++) {
+            if (!rejected.contains(i)) {
+                inserted.add(batch.transactions.get(i));
+            }
+        }
+        rollupService.addAll(inserted);
+        hotWindowStore.putAll(inserted);
+        inserted.forEach(snapshotService::invalidate);
+        if (!inserted.isEmpty()) {
+            writeVersionService.bump(WriteVersionService.Collection.TRANSACTIONS, batch.userId);
+            dashboardStreamService.refresh(batch.userId);
+        }
+        result.setInserted(result.getInserted() + inserted.size());
+        
+        batch.rows.clear();
+        batch.transactions.clear();
+    }
+    
+    private static String validate(Transaction transaction) {
+        if (transaction.getType() == null) {
+            return "type is required (INCOME or EXPENSE)";
+        }
+        if (transaction.getDivision() == null) {
+            return "division is required (OFFICE or PERSONAL)";
+        }
+        if (transaction.getCategory() == null || transaction.getCategory().isBlank()) {
+            return "category is required";
+        }
+        if (transaction.getAmount() == null || transaction.getAmount() <= 0) {
+            return "amount must be greater than zero";
+        }
+        return null;
+    }
+    
+    static void fail(BulkImportResultDTO result, long row, String error) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getFailures().size() < MAX_REPORTED_FAILURES) {
+            result.getFailures().add(new BulkImportResultDTO.RowFailure(row, error));
+        }
+    }
+    
+    // Rows waiting for the next bulk write, with their positions in the input for error reporting.
+    // Every row of an import belongs to the user who sent it.
+    static class Batch {
+        final String userId;
+        final List<Long> rows = new ArrayList<>();
+        final List<Transaction> transactions = new ArrayList<>();
+        
+        Batch(String userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -1,144 +1,181 @@
 package com.moneymanager.service;
 
+import com.moneymanager.dto.TransactionCursor;
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.dto.TransactionPageDTO;
 import com.moneymanager.exception.ResourceNotFoundException;
 import com.moneymanager.exception.EditTimeExpiredException;
 import com.moneymanager.model.Transaction;
 import com.moneymanager.repository.TransactionRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "moneymanager.service", histogram = true)
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final RollupService rollupService;
+    private final HotWindowStore hotWindowStore;
+    private final SnapshotService snapshotService;
+    private final WriteVersionService writeVersionService;
+    private final DashboardStreamService dashboardStreamService;
     private static final long EDIT_TIME_LIMIT_HOURS = 12;
+    public static final int MAX_PAGE_SIZE = 1000;
 
-    public Transaction createTransaction(Transaction transaction) {
+    public Transaction createTransaction(String userId, Transaction transaction) {
+        transaction.setId(null);
+        transaction.setUserId(userId);
         if (transaction.getDate() == null) {
             transaction.setDate(LocalDateTime.now());
         }
-        Transaction saved = transactionRepository.save(transaction);
-        saved.setIsEditable(isEditable(saved));
-        return saved;
+
+        // Held until the change is published, so a dashboard stream opening meanwhile sees it exactly once
+        Lock streamLock = dashboardStreamService.lockForWrite(userId);
+        try {
+            Transaction saved = transactionRepository.save(transaction);
+            rollupService.add(saved);
+            hotWindowStore.put(saved);
+            snapshotService.invalidate(saved);
+            writeVersionService.bump(WriteVersionService.Collection.TRANSACTIONS, userId);
+            dashboardStreamService.publish(userId, null, saved);
+            saved.setIsEditable(isEditable(saved));
+            return saved;
+        } finally {
+            streamLock.unlock();
+        }
     }
 
-    public List<Transaction> getAllTransactions() {
-        List<Transaction> transactions = transactionRepository.findAll();
+    public List<Transaction> getAllTransactions(String userId) {
+        List<Transaction> transactions = transactionRepository.findByUserId(userId);
         transactions.forEach(t -> t.setIsEditable(isEditable(t)));
         return transactions;
     }
 
-    public Transaction getTransactionById(String id) {
-        Transaction transaction = transactionRepository.findById(id)
+    public Transaction getTransactionById(String userId, String id) {
+        Transaction transaction = transactionRepository.findByIdAndUserId(id, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
         transaction.setIsEditable(isEditable(transaction));
         return transaction;
     }
 
-    public Transaction updateTransaction(String id, Transaction transactionDetails) {
-        Transaction transaction = getTransactionById(id);
+    public Transaction updateTransaction(String userId, String id, Transaction transactionDetails) {
+        Transaction transaction = getTransactionById(userId, id);
 
         // Check if transaction is still editable (within 12 hours)
         if (!isEditable(transaction)) {
             throw new EditTimeExpiredException("Transaction can only be edited within 12 hours of creation");
         }
 
-        // Update fields
-        if (transactionDetails.getAmount() != null) {
-            transaction.setAmount(transactionDetails.getAmount());
-        }
-        if (transactionDetails.getCategory() != null) {
-            transaction.setCategory(transactionDetails.getCategory());
-        }
-        if (transactionDetails.getDivision() != null) {
-            transaction.setDivision(transactionDetails.getDivision());
-        }
-        if (transactionDetails.getDescription() != null) {
-            transaction.setDescription(transactionDetails.getDescription());
-        }
-        if (transactionDetails.getDate() != null) {
-            transaction.setDate(transactionDetails.getDate());
-        }
-        if (transactionDetails.getType() != null) {
-            transaction.setType(transactionDetails.getType());
+        Lock streamLock = dashboardStreamService.lockForWrite(userId);
+        try {
+            // The pre-edit values come from the write itself, so concurrent edits each correct the rollups
+            // by exactly their own change
+            LocalDateTime now = LocalDateTime.now();
+            Transaction previous = transactionRepository.updateReturningPrevious(userId, id, transactionDetails, now)
+                    .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
+
+            // Update fields
+            Transaction updated = new Transaction();
+            BeanUtils.copyProperties(previous, updated);
+            if (transactionDetails.getAmount() != null) {
+                updated.setAmount(transactionDetails.getAmount());
+            }
+            if (transactionDetails.getCategory() != null) {
+                updated.setCategory(transactionDetails.getCategory());
+            }
+            if (transactionDetails.getDivision() != null) {
+                updated.setDivision(transactionDetails.getDivision());
+            }
+            if (transactionDetails.getDescription() != null) {
+                updated.setDescription(transactionDetails.getDescription());
+            }
+            if (transactionDetails.getDate() != null) {
+                updated.setDate(transactionDetails.getDate());
+            }
+            if (transactionDetails.getType() != null) {
+                updated.setType(transactionDetails.getType());
+            }
+            updated.setUpdatedAt(now);
+
+            rollupService.replace(previous, updated);
+            hotWindowStore.put(updated);
+            snapshotService.invalidate(previous);
+            snapshotService.invalidate(updated);
+            writeVersionService.bump(WriteVersionService.Collection.TRANSACTIONS, userId);
+            dashboardStreamService.publish(userId, previous, updated);
+            updated.setIsEditable(isEditable(updated));
+            return updated;
+        } finally {
+            streamLock.unlock();
         }
-
-        Transaction updated = transactionRepository.save(transaction);
-        updated.setIsEditable(isEditable(updated));
-        return updated;
     }
 
-    public void deleteTransaction(String id) {
-        Transaction transaction = getTransactionById(id);
+    public void deleteTransaction(String userId, String id) {
+        Transaction transaction = getTransactionById(userId, id);
 
         // Check if transaction is still editable (within 12 hours)
         if (!isEditable(transaction)) {
             throw new EditTimeExpiredException("Transaction can only be deleted within 12 hours of creation");
         }
 
-        transactionRepository.deleteById(id);
+        Lock streamLock = dashboardStreamService.lockForWrite(userId);
+        try {
+            // Only the request that actually removed the document corrects the rollups
+            Transaction removed = transactionRepository.removeReturningPrevious(userId, id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Transaction not found with id: " + id));
+            rollupService.subtract(removed);
+            hotWindowStore.remove(removed);
+            snapshotService.invalidate(removed);
+            writeVersionService.bump(WriteVersionService.Collection.TRANSACTIONS, userId);
+            dashboardStreamService.publish(userId, removed, null);
+        } finally {
+            streamLock.unlock();
+        }
     }
 
-    public List<Transaction> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Transaction> transactions = transactionRepository.findByDateBetween(startDate, endDate);
+    public List<Transaction> getTransactionsByDateRange(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        List<Transaction> transactions = transactionRepository.findByUserIdAndDateBetween(userId, startDate, endDate);
         transactions.forEach(t -> t.setIsEditable(isEditable(t)));
         return transactions;
     }
 
-    public List<Transaction> getTransactionsByFilters(
-            LocalDateTime startDate,
-            LocalDateTime endDate,
-            Transaction.TransactionType type,
-            Transaction.Division division,
-            String category) {
-
-        List<Transaction> transactions;
-
-        // If dates are provided, use date-based queries
-        if (startDate != null && endDate != null) {
-            // Apply filters based on what's provided
-            if (type != null && division != null && category != null) {
-                transactions = transactionRepository.findByFilters(startDate, endDate, type, division, category);
-            } else if (type != null) {
-                transactions = transactionRepository.findByDateBetweenAndType(startDate, endDate, type);
-            } else if (division != null) {
-                transactions = transactionRepository.findByDateBetweenAndDivision(startDate, endDate, division);
-            } else if (category != null) {
-                transactions = transactionRepository.findByDateBetweenAndCategory(startDate, endDate, category);
-            } else {
-                transactions = transactionRepository.findByDateBetween(startDate, endDate);
-            }
-        } else {
-            // No dates provided, filter without date constraints
-            if (type != null && division != null && category != null) {
-                transactions = transactionRepository.findByTypeAndDivisionAndCategory(type, division, category);
-            } else if (type != null && division != null) {
-                transactions = transactionRepository.findByTypeAndDivision(type, division);
-            } else if (type != null && category != null) {
-                transactions = transactionRepository.findByTypeAndCategory(type, category);
-            } else if (division != null && category != null) {
-                transactions = transactionRepository.findByDivisionAndCategory(division, category);
-            } else if (type != null) {
-                transactions = transactionRepository.findByType(type);
-            } else if (division != null) {
-                transactions = transactionRepository.findByDivision(division);
-            } else if (category != null) {
-                transactions = transactionRepository.findByCategory(category);
-            } else {
-                transactions = transactionRepository.findAll();
-            }
+    public List<Transaction> getTransactionsByFilters(TransactionFilter filter) {
+        List<Transaction> transactions = transactionRepository.findByFilter(filter);
+        transactions.forEach(t -> t.setIsEditable(isEditable(t)));
+        return transactions;
+    }
+
+    public TransactionPageDTO getTransactionPage(TransactionFilter filter, TransactionCursor after, int limit) {
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<Transaction> transactions = transactionRepository.findPage(filter, after, limit + 1);
+
+        String nextCursor = null;
+        if (transactions.size() > limit) {
+            transactions = transactions.subList(0, limit);
+            nextCursor = TransactionCursor.after(transactions.get(limit - 1)).encode();
         }
 
         transactions.forEach(t -> t.setIsEditable(isEditable(t)));
-        return transactions;
+        return new TransactionPageDTO(transactions, nextCursor);
+    }
+
+    // Callers must close the returned stream to release the Mongo cursor
+    public Stream<Transaction> streamTransactions(TransactionFilter filter) {
+        return transactionRepository.streamByFilter(filter)
+                .peek(t -> t.setIsEditable(isEditable(t)));
     }
 
-    private boolean isEditable(Transaction transaction) {
+    static boolean isEditable(Transaction transaction) {
         if (transaction.getCreatedAt() == null) {
             return true; // New transaction not yet saved
         }
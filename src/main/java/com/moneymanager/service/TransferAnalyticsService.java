@@ -0,0 +1,109 @@
+package com.moneymanager.service;
+
+import com.moneymanager.dto.AccountFlowDTO;
+import com.moneymanager.dto.MonthlyFlowDTO;
+import com.moneymanager.dto.TransferFlowDTO;
+import com.moneymanager.exception.BadRequestException;
+import com.moneymanager.model.Money;
+import com.moneymanager.repository.TransferRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Per-account transfer flows. Mongo sums each side of the transfers per account and month;
+// this service only joins the two result sets and fills in the months without transfers.
+@Service
+@RequiredArgsConstructor
+public class TransferAnalyticsService {
+    
+    public static final int MAX_MONTHS = 120;
+    
+    private final TransferRepository transferRepository;
+    private final AccountService accountService;
+    
+    // Without dates: the current month and the eleven before it
+    public List<AccountFlowDTO> getAccountFlows(String userId, String accountId,
+                                                LocalDateTime startDate, LocalDateTime endDate) {
+        if (endDate == null) {
+            endDate = LocalDateTime.now();
+        }
+        if (startDate == null) {
+            startDate = YearMonth.from(endDate).minusMonths(11).atDay(1).atStartOfDay();
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+        
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth m = YearMonth.from(startDate); !m.isAfter(YearMonth.from(endDate)); m = m.plusMonths(1)) {
+            months.add(m);
+        }
+        if (months.size() > MAX_MONTHS) {
+            throw new BadRequestException("Transfer analytics cover at most " + MAX_MONTHS + " months");
+        }
+        
+        Map<String, String> names = new HashMap<>();
+        if (accountId != null) {
+            names.put(accountId, accountService.getAccountById(userId, accountId).getAccountName());
+        } else {
+            accountService.getAllAccounts(userId).forEach(a -> names.put(a.getId(), a.getAccountName()));
+        }
+        
+        Map<String, Flows> flows = new LinkedHashMap<>();
+        Map<String, Integer> monthIndex = new HashMap<>();
+        for (int i = 0; i < months.size(); i++) {
+            monthIndex.put(months.get(i).toString(), i);
+        }
+        // One row per account and month on each side
+        for (TransferFlowDTO row : transferRepository.sumInflowsByMonth(userId, accountId, startDate, endDate)) {
+            Flows f = flows.computeIfAbsent(row.getAccountId(), id -> new Flows(months.size()));
+            f.in[monthIndex.get(row.getMonth())] = row.getAmount();
+            f.countIn += row.getCount();
+        }
+        for (TransferFlowDTO row : transferRepository.sumOutflowsByMonth(userId, accountId, startDate, endDate)) {
+            Flows f = flows.computeIfAbsent(row.getAccountId(), id -> new Flows(months.size()));
+            f.out[monthIndex.get(row.getMonth())] = row.getAmount();
+            f.countOut += row.getCount();
+        }
+        
+        List<AccountFlowDTO> result = new ArrayList<>(flows.size());
+        flows.forEach((id, f) -> {
+            long inflow = 0;
+            long outflow = 0;
+            List<MonthlyFlowDTO> monthly = new ArrayList<>(months.size());
+            for (int i = 0; i < months.size(); i++) {
+                inflow = Money.add(inflow, f.in[i]);
+                outflow = Money.add(outflow, f.out[i]);
+                monthly.add(new MonthlyFlowDTO(months.get(i).toString(), Money.toMajor(f.in[i]),
+                    Money.toMajor(f.out[i]), Money.toMajor(Money.subtract(f.in[i], f.out[i]))));
+            }
+            result.add(new AccountFlowDTO(id, names.get(id), Money.toMajor(inflow), Money.toMajor(outflow),
+                Money.toMajor(Money.subtract(inflow, outflow)), f.countIn, f.countOut, monthly));
+        });
+        
+        // Busiest accounts first
+        result.sort(Comparator.comparingDouble((AccountFlowDTO a) -> a.getInflow() + a.getOutflow()).reversed());
+        return result;
+    }
+    
+    // Minor-unit sums per month index for one account
+    private static final class Flows {
+        final long[] in;
+        final long[] out;
+        long countIn;
+        long countOut;
+        
+        Flows(int months) {
+            in = new long[months];
+            out = new long[months];
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.moneymanager.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user write counters for each collection, bumped after every write made through this instance.
+// Conditional GETs derive their ETags from the counters a response depends on, so an unchanged
+// counter is answered with 304 before any query runs. Writes made by another instance would not
+// bump them, so ETags are off (etag returns null) unless deployment.single-instance is set.
+@Service
+public class WriteVersionService {
+
+    public enum Collection {
+        TRANSACTIONS,
+        ACCOUNTS
+    }
+
+    private final boolean enabled;
+    private final Map<Collection, Map<String, AtomicLong>> versions = new EnumMap<>(Collection.class);
+
+    // Counters restart at zero with the process, so the start time keeps a new process from
+    // reproducing an ETag the previous one handed out for different data
+    private volatile long epoch = System.currentTimeMillis();
+
+    public WriteVersionService(@Value("${http.etags.enabled:${deployment.single-instance:false}}") boolean enabled) {
+        this.enabled = enabled;
+        for (Collection collection : Collection.values()) {
+            versions.put(collection, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void bump(Collection collection, String userId) {
+        if (!enabled) {
+            return;
+        }
+        versions.get(collection).computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    // Changes every ETag; used after bulk rewrites that bypass the services
+    public void bumpAll() {
+        epoch = Math.max(epoch + 1, System.currentTimeMillis());
+    }
+
+    // Strong ETag for a response of this user that depends on the given collections. The scope
+    // carries anything else the response depends on, such as the current date for default periods.
+    // Null when ETags are off: the response then carries none and If-None-Match never matches.
+    public String etag(String userId, Object scope, Collection... collections) {
+        if (!enabled) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder().append(epoch).append('|').append(userId).append('|').append(scope);
+        for (Collection collection : collections) {
+            AtomicLong version = versions.get(collection).get(userId);
+            key.append('|').append(collection).append(':').append(version != null ? version.get() : 0L);
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
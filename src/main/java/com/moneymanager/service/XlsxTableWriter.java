@@ -0,0 +1,94 @@
+package com.moneymanager.service;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// XLSX through SXSSF: only the last WINDOW rows stay in memory, older ones are flushed to a
+// (compressed) temp file. Unlike CsvTableWriter nothing reaches the response before close(), which
+// zips the whole workbook into it. Rows past the sheet limit go to a new sheet.
+class XlsxTableWriter implements TableWriter {
+
+    private static final int WINDOW = 100;
+    private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook = new SXSSFWorkbook(WINDOW);
+    private final CellStyle dateStyle;
+    private final CellStyle amountStyle;
+    private final String sheetName;
+    private Object[] header;
+    private Sheet sheet;
+    private int rowIndex;
+
+    XlsxTableWriter(OutputStream out, String sheetName) {
+        this.out = out;
+        this.sheetName = sheetName;
+        workbook.setCompressTempFiles(true);
+
+        dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+        amountStyle = workbook.createCellStyle();
+        amountStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+    }
+
+    // The first row is the header and is repeated at the top of every sheet
+    @Override
+    public void row(Object... values) {
+        if (header == null) {
+            header = values;
+        }
+        if (sheet == null || rowIndex == MAX_ROWS) {
+            int number = workbook.getNumberOfSheets() + 1;
+            sheet = workbook.createSheet(number == 1 ? sheetName : sheetName + " (" + number + ")");
+            rowIndex = 0;
+            if (values != header) {
+                write(header);
+            }
+        }
+        write(values);
+    }
+
+    private void write(Object[] values) {
+        Row row = sheet.createRow(rowIndex++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            Cell cell = row.createCell(i);
+            if (value instanceof BigDecimal decimal) {
+                cell.setCellValue(decimal.doubleValue());
+                cell.setCellStyle(amountStyle);
+            } else if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value instanceof LocalDateTime date) {
+                cell.setCellValue(date);
+                cell.setCellStyle(dateStyle);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (sheet == null) {
+                workbook.createSheet(sheetName);
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.moneymanager.repository;
+
+import com.moneymanager.config.MongoIndexConfig;
+import com.moneymanager.dto.TransactionFilter;
+import com.moneymanager.model.Transaction;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Explains every combination of transaction list filters against the declared indexes and fails on a
+// COLLSCAN. Every filter is scoped to a user, so even the unfiltered listing must be an index range.
+@DataMongoTest
+@Import(MongoIndexConfig.class)
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionFilterPlanTest {
+    
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private MongoIndexConfig mongoIndexConfig;
+    
+    @BeforeEach
+    void createIndexes() {
+        mongoIndexConfig.run();
+    }
+    
+    // Bits: date range, type, division, category
+    static IntStream filterCombinations() {
+        return IntStream.range(0, 16);
+    }
+    
+    @ParameterizedTest
+    @MethodSource("filterCombinations")
+    void filterIsIndexBacked(int mask) {
+        LocalDateTime now = LocalDateTime.now();
+        TransactionFilter filter = new TransactionFilter(
+            "user-1",
+            (mask & 1) != 0 ? now.minusDays(30) : null,
+            (mask & 1) != 0 ? now : null,
+            (mask & 2) != 0 ? Transaction.TransactionType.EXPENSE : null,
+            (mask & 4) != 0 ? Transaction.Division.OFFICE : null,
+            (mask & 8) != 0 ? "food" : null
+        );
+        
+        Document winningPlan = transactionRepository.explainFilter(filter)
+            .get("queryPlanner", Document.class)
+            .get("winningPlan", Document.class);
+        assertThat(winningPlan.toJson()).as(filter.toString()).doesNotContain("\"COLLSCAN\"");
+    }
+}
@@ -0,0 +1,110 @@
+package com.moneymanager.service;
+
+import com.moneymanager.exception.InsufficientBalanceException;
+import com.moneymanager.model.Account;
+import com.moneymanager.model.Transfer;
+import com.moneymanager.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Thousands of parallel createTransfer calls against a real MongoDB. Balances are small compared to
+// the amounts, so many transfers race to drain the same account and only the balance >= amount guard
+// of the debit's findAndModify keeps them from overdrawing it.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class TransferConcurrencyTest {
+    
+    private static final String USER = "transfer-concurrency";
+    private static final int ACCOUNTS = 8;
+    private static final long INITIAL_BALANCE = 10_000;
+    private static final int TRANSFERS = 5_000;
+    private static final int THREADS = 32;
+    
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Test
+    void parallelTransfersConserveMoneyAndNeverOverdraw() throws Exception {
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = new Account();
+            account.setAccountName("Account " + i);
+            account.setBalance(INITIAL_BALANCE);
+            accountIds.add(accountService.createAccount(USER, account).getId());
+        }
+        
+        // Fixed seed, so a failure can be reproduced
+        Random random = new Random(42);
+        List<Transfer> transfers = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            int from = random.nextInt(ACCOUNTS);
+            int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+            Transfer transfer = new Transfer();
+            transfer.setFromAccountId(accountIds.get(from));
+            transfer.setToAccountId(accountIds.get(to));
+            transfer.setAmount(1 + (long) random.nextInt((int) INITIAL_BALANCE));
+            transfers.add(transfer);
+        }
+        
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> results = new ArrayList<>(TRANSFERS);
+            for (Transfer transfer : transfers) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        accountService.createTransfer(USER, transfer);
+                        completed.incrementAndGet();
+                    } catch (InsufficientBalanceException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            // Any other exception fails the test here
+            for (Future<?> result : results) {
+                result.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        List<Account> accounts = accountRepository.findByUserId(USER);
+        assertThat(accounts).hasSize(ACCOUNTS);
+        assertThat(accounts.stream().mapToLong(Account::getBalance).sum()).isEqualTo(ACCOUNTS * INITIAL_BALANCE);
+        assertThat(accounts).allSatisfy(account -> assertThat(account.getBalance()).isNotNegative());
+        
+        // Both outcomes happened, so the guard was actually contended
+        assertThat(completed.get() + rejected.get()).isEqualTo(TRANSFERS);
+        assertThat(completed.get()).isPositive();
+        assertThat(rejected.get()).isPositive();
+    }
+}